@@ -0,0 +1,261 @@
+package datastructures.graph;
+
+import java.util.Random;
+
+/**
+ * An adjacency matrix only ever holds 0 or 1, so storing each cell in an int
+ * wastes 31 of its 32 bits. This version packs the matrix into the bits of a
+ * long[]: row r occupies wordsPerRow consecutive longs and column c of that
+ * row is bit (c % 64) of word (c / 64). A 100,000 vertex graph then needs
+ * about 1.25 GB instead of 40 GB, and a new matrix is already all zero, so
+ * there is nothing like initAdjMatrix() to run.
+ *
+ * Packing also makes whole rows cheap to work with. The neighbors of a vertex
+ * are found by jumping from one set bit to the next with
+ * Long.numberOfTrailingZeros() rather than testing every column, and set
+ * operations on two rows (common neighbors, union of neighbors) combine 64
+ * columns per AND/OR instruction and count them with Long.bitCount().
+ *
+ * The searches keep their visited vertices in a bitset of the same layout,
+ * so finding an unvisited neighbor is row & ~visited, one word at a time.
+ */
+public class BitMatrixGraph {
+	final int vertexCount;
+	final int wordsPerRow;
+	final long[] matrix;
+
+	public BitMatrixGraph(int vertexCount) {
+		int wordsPerRow = (vertexCount + 63) >>> 6;
+		if ((long) vertexCount * wordsPerRow > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many vertices for a bit matrix : " + vertexCount);
+		}
+		this.vertexCount = vertexCount;
+		this.wordsPerRow = wordsPerRow;
+		this.matrix = new long[vertexCount * wordsPerRow];
+	}
+
+	public static void main(String[] args) {
+		// Same graph as Graph.initializeGraphForDFS(): AB BF FH AC AD DG GI AE
+		BitMatrixGraph graph = new BitMatrixGraph(9);
+		graph.addEdge(0, 1);
+		graph.addEdge(1, 5);
+		graph.addEdge(5, 7);
+		graph.addEdge(0, 2);
+		graph.addEdge(0, 3);
+		graph.addEdge(3, 6);
+		graph.addEdge(6, 8);
+		graph.addEdge(0, 4);
+		System.out.print("Visits (DFS) : ");
+		CSRGraph.printLabels(graph.performDFS(0));
+		System.out.print("\nVisits (BFS) : ");
+		CSRGraph.printLabels(graph.performBFS(0));
+		System.out.println("\nCommon neighbors of B and D : " + graph.commonNeighborCount(1, 3));
+		System.out.println("Common neighbors of F and G : " + graph.commonNeighborCount(5, 6));
+
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		graph = new BitMatrixGraph(vertexCount);
+		Random random = new Random(42);
+		for (int edge = 0; edge < vertexCount * 50; edge++) {
+			graph.addEdge(random.nextInt(vertexCount), random.nextInt(vertexCount));
+		}
+		long begin = System.nanoTime();
+		int reached = graph.performBFS(0).length;
+		System.out.println("BFS over " + vertexCount + " vertices (" + graph.matrix.length * 8L / (1024 * 1024)
+				+ " MB matrix) reached " + reached + " in " + (System.nanoTime() - begin) / 1000000 + " ms");
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	void checkVertex(int vertex) {
+		CSRGraph.checkVertex(vertex, vertexCount);
+	}
+
+	public void addEdge(int vertexIndexA, int vertexIndexB) {
+		addDirectedEdge(vertexIndexA, vertexIndexB);
+		addDirectedEdge(vertexIndexB, vertexIndexA);
+	}
+
+	public void addDirectedEdge(int row, int col) {
+		checkVertex(row);
+		checkVertex(col);
+		matrix[row * wordsPerRow + (col >>> 6)] |= 1L << col;
+	}
+
+	public void removeEdge(int vertexIndexA, int vertexIndexB) {
+		removeDirectedEdge(vertexIndexA, vertexIndexB);
+		removeDirectedEdge(vertexIndexB, vertexIndexA);
+	}
+
+	public void removeDirectedEdge(int row, int col) {
+		checkVertex(row);
+		checkVertex(col);
+		matrix[row * wordsPerRow + (col >>> 6)] &= ~(1L << col);
+	}
+
+	public boolean hasEdge(int row, int col) {
+		return (matrix[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+	}
+
+	public int degree(int vertex) {
+		int count = 0;
+		for (int word = vertex * wordsPerRow, end = word + wordsPerRow; word < end; word++) {
+			count += Long.bitCount(matrix[word]);
+		}
+		return count;
+	}
+
+	/**
+	 * Works like BitSet.nextSetBit(): returns the first neighbor of vertex at
+	 * or after fromIndex, or -1 if there is none. Looping with
+	 * nextNeighbor(vertex, neighbor + 1) visits every neighbor in ascending
+	 * order while skipping empty words whole.
+	 *
+	 * @param vertex
+	 * @param fromIndex
+	 * @return
+	 */
+	public int nextNeighbor(int vertex, int fromIndex) {
+		if (fromIndex >= vertexCount) {
+			return -1;
+		}
+		int rowStart = vertex * wordsPerRow;
+		int word = fromIndex >>> 6;
+		long bits = matrix[rowStart + word] & (-1L << fromIndex);
+		while (bits == 0) {
+			if (++word == wordsPerRow) {
+				return -1;
+			}
+			bits = matrix[rowStart + word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * @return the number of vertices adjacent to both a and b
+	 */
+	public int commonNeighborCount(int vertexA, int vertexB) {
+		int rowA = vertexA * wordsPerRow;
+		int rowB = vertexB * wordsPerRow;
+		int count = 0;
+		for (int word = 0; word < wordsPerRow; word++) {
+			count += Long.bitCount(matrix[rowA + word] & matrix[rowB + word]);
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of vertices adjacent to a or b (or both)
+	 */
+	public int neighborUnionCount(int vertexA, int vertexB) {
+		int rowA = vertexA * wordsPerRow;
+		int rowB = vertexB * wordsPerRow;
+		int count = 0;
+		for (int word = 0; word < wordsPerRow; word++) {
+			count += Long.bitCount(matrix[rowA + word] | matrix[rowB + word]);
+		}
+		return count;
+	}
+
+	/**
+	 * Writes the row of common neighbors of a and b into result, which must
+	 * hold at least wordsPerRow longs.
+	 */
+	public void commonNeighbors(int vertexA, int vertexB, long[] result) {
+		int rowA = vertexA * wordsPerRow;
+		int rowB = vertexB * wordsPerRow;
+		for (int word = 0; word < wordsPerRow; word++) {
+			result[word] = matrix[rowA + word] & matrix[rowB + word];
+		}
+	}
+
+	/**
+	 * Finds the first neighbor of currentVertex that is not yet visited by
+	 * masking its row with the complement of the visited bitset.
+	 */
+	int getAdjacentUnvisitedVertex(int currentVertex, long[] visited) {
+		int rowStart = currentVertex * wordsPerRow;
+		for (int word = 0; word < wordsPerRow; word++) {
+			long bits = matrix[rowStart + word] & ~visited[word];
+			if (bits != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(bits);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param start
+	 * @return the vertices in the order a depth first search visits them
+	 */
+	public int[] performDFS(int start) {
+		checkVertex(start);
+		long[] visited = new long[wordsPerRow];
+		int[] stack = new int[vertexCount];
+		int[] order = new int[vertexCount];
+		int visitCount = 0;
+		int top = -1;
+		stack[++top] = start;
+		visited[start >>> 6] |= 1L << start;
+		order[visitCount++] = start;
+		while (top >= 0) {
+			int adjVertex = getAdjacentUnvisitedVertex(stack[top], visited);
+			if (adjVertex == -1) {
+				top--;
+			} else {
+				stack[++top] = adjVertex;
+				visited[adjVertex >>> 6] |= 1L << adjVertex;
+				order[visitCount++] = adjVertex;
+			}
+		}
+		return CSRGraph.trim(order, visitCount);
+	}
+
+	/**
+	 * @param start
+	 * @return the vertices in the order a breadth first search visits them
+	 */
+	public int[] performBFS(int start) {
+		checkVertex(start);
+		long[] visited = new long[wordsPerRow];
+		int[] queue = new int[vertexCount];
+		int front = 0;
+		int rear = 0;
+		queue[rear++] = start;
+		visited[start >>> 6] |= 1L << start;
+		while (front < rear) {
+			int rowStart = queue[front++] * wordsPerRow;
+			for (int word = 0; word < wordsPerRow; word++) {
+				long bits = matrix[rowStart + word] & ~visited[word];
+				visited[word] |= bits;
+				while (bits != 0) {
+					queue[rear++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+					bits &= bits - 1;
+				}
+			}
+		}
+		return CSRGraph.trim(queue, rear);
+	}
+
+	/**
+	 * Copies the matrix into a CSRGraph, for the algorithms that work on
+	 * adjacency lists. The copy is marked directed, since a bit matrix does
+	 * not remember how its edges were added.
+	 */
+	public CSRGraph toCSRGraph() {
+		int[] offsets = new int[vertexCount + 1];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			offsets[vertex + 1] = offsets[vertex] + degree(vertex);
+		}
+		int[] targets = new int[offsets[vertexCount]];
+		int arc = 0;
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			for (int neighbor = nextNeighbor(vertex, 0); neighbor != -1; neighbor = nextNeighbor(vertex,
+					neighbor + 1)) {
+				targets[arc++] = neighbor;
+			}
+		}
+		return new CSRGraph(vertexCount, offsets, targets, true);
+	}
+}
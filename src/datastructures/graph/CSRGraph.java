@@ -0,0 +1,594 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntPredicate;
+
+/**
+ * The adjacency matrix used by Graph needs NxN cells no matter how many edges
+ * exist, and finding the neighbors of a vertex means scanning a whole row. Most
+ * real graphs (road networks, dependency graphs, social networks) are sparse:
+ * each vertex touches only a handful of others. For such graphs the adjacency
+ * list is the better representation, and Compressed Sparse Row (CSR) is the
+ * most compact way of storing adjacency lists.
+ *
+ * CSR keeps all adjacency lists back to back in a single array, targets[]. A
+ * second array, offsets[], of size N+1 records where the list of each vertex
+ * starts, so the neighbors of vertex v are targets[offsets[v]] up to (but not
+ * including) targets[offsets[v + 1]]. The whole graph costs (N + 1) + E ints
+ * and no objects at all, and visiting the neighbors of a vertex costs exactly
+ * its degree.
+ *
+ * The graph is built once from an edge list using a counting sort, so
+ * construction is O(N + E). Every adjacency list comes out sorted in
+ * ascending order with duplicate edges removed, which means the searches below
+ * visit vertices in the same order as the adjacency matrix versions in Graph.
+ * Following solutions are implemented, each in O(N + E)
+ *
+ * 1) Depth First Search
+ *
+ * 2) Breadth First Search
+ *
+ * 3) Minimum Spanning Tree
+ *
+ * 4) Topological Sorting
+ *
+ * Searches run fastest when neighbors have nearby numbers. VertexOrdering
+ * computes such a numbering, and permute() applies it.
+ */
+public class CSRGraph {
+	final int vertexCount;
+	final int[] offsets;
+	final int[] targets;
+	final boolean directed;
+	final long[] vertexLabels;
+
+	CSRGraph(int vertexCount, int[] offsets, int[] targets, boolean directed) {
+		this(vertexCount, offsets, targets, directed, null);
+	}
+
+	CSRGraph(int vertexCount, int[] offsets, int[] targets, boolean directed, long[] vertexLabels) {
+		this.vertexCount = vertexCount;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.directed = directed;
+		this.vertexLabels = vertexLabels;
+	}
+
+	public static void main(String[] args) {
+		// Same graph as Graph.initializeGraphForDFS(): AB BF FH AC AD DG GI AE
+		int[] from = { 0, 1, 5, 0, 0, 3, 6, 0 };
+		int[] to = { 1, 5, 7, 2, 3, 6, 8, 4 };
+		CSRGraph graph = fromEdgeList(9, from, to, from.length, false);
+		System.out.print("Visits (DFS) : ");
+		printLabels(graph.performDFS(0));
+		System.out.print("\nVisits (BFS) : ");
+		printLabels(graph.performBFS(0));
+		System.out.print("\nMinimum Spanning Tree : ");
+		int[] treeEdges = graph.performMST(0);
+		for (int index = 0; index < treeEdges.length; index += 2) {
+			System.out.print(label(treeEdges[index]) + "" + label(treeEdges[index + 1]) + "	");
+		}
+
+		// Same graph as Graph.initializeGraphForTopoSort(): AD AE BE CF DG EG FH GH
+		from = new int[] { 0, 0, 1, 2, 3, 4, 5, 6 };
+		to = new int[] { 3, 4, 4, 5, 6, 6, 7, 7 };
+		graph = fromEdgeList(8, from, to, from.length, true);
+		int[] sorted = graph.performTopoSort();
+		if (sorted == null) {
+			System.out.println("\nCurrent Vertex has cycles. Program Aborted..");
+		} else {
+			System.out.print("\nThe Topological Sorted Order is : ");
+			printLabels(sorted);
+		}
+		System.out.println();
+	}
+
+	static char label(int vertex) {
+		return (char) ('A' + vertex);
+	}
+
+	static void printLabels(int[] vertices) {
+		for (int index = 0; index < vertices.length; index++) {
+			System.out.print(label(vertices[index]));
+		}
+	}
+
+	/**
+	 * Builds a graph from the first edgeCount entries of two parallel arrays,
+	 * edgeFrom[i] -> edgeTo[i]. For an undirected graph each edge is stored in
+	 * the adjacency list of both of its end points.
+	 *
+	 * The arcs are first bucketed by their target vertex and then, walking the
+	 * targets in ascending order, appended to the list of their source vertex.
+	 * This two pass counting sort leaves every adjacency list sorted without any
+	 * comparison sort, which also makes duplicate edges adjacent so that they
+	 * can be dropped on the way.
+	 *
+	 * @param vertexCount
+	 * @param edgeFrom
+	 * @param edgeTo
+	 * @param edgeCount
+	 * @param directed
+	 * @return
+	 */
+	public static CSRGraph fromEdgeList(int vertexCount, int[] edgeFrom, int[] edgeTo, int edgeCount,
+			boolean directed) {
+		int arcCount = directed ? edgeCount : 2 * edgeCount;
+		// Pass 1 : bucket every arc by its target
+		int[] inOffsets = new int[vertexCount + 1];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			checkVertex(edgeFrom[edge], vertexCount);
+			checkVertex(edgeTo[edge], vertexCount);
+			inOffsets[edgeTo[edge] + 1]++;
+			if (!directed) {
+				inOffsets[edgeFrom[edge] + 1]++;
+			}
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			inOffsets[vertex + 1] += inOffsets[vertex];
+		}
+		int[] sources = new int[arcCount];
+		int[] cursor = new int[vertexCount];
+		System.arraycopy(inOffsets, 0, cursor, 0, vertexCount);
+		for (int edge = 0; edge < edgeCount; edge++) {
+			sources[cursor[edgeTo[edge]]++] = edgeFrom[edge];
+			if (!directed) {
+				sources[cursor[edgeFrom[edge]]++] = edgeTo[edge];
+			}
+		}
+
+		// Pass 2 : walk the targets in ascending order and append each arc to
+		// the list of its source
+		int[] offsets = new int[vertexCount + 1];
+		for (int arc = 0; arc < arcCount; arc++) {
+			offsets[sources[arc] + 1]++;
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			offsets[vertex + 1] += offsets[vertex];
+		}
+		int[] targets = new int[arcCount];
+		System.arraycopy(offsets, 0, cursor, 0, vertexCount);
+		for (int target = 0; target < vertexCount; target++) {
+			for (int arc = inOffsets[target]; arc < inOffsets[target + 1]; arc++) {
+				int source = sources[arc];
+				int end = cursor[source];
+				if (end > offsets[source] && targets[end - 1] == target) {
+					continue; // duplicate edge
+				}
+				targets[end] = target;
+				cursor[source] = end + 1;
+			}
+		}
+		return compact(vertexCount, offsets, cursor, targets, directed);
+	}
+
+	/**
+	 * Squeezes out the slots left free by dropped duplicates. cursor[v] is the
+	 * end of the filled part of the list of v.
+	 */
+	static CSRGraph compact(int vertexCount, int[] offsets, int[] cursor, int[] targets, boolean directed) {
+		int write = 0;
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			int start = offsets[vertex];
+			int length = cursor[vertex] - start;
+			if (start != write) {
+				System.arraycopy(targets, start, targets, write, length);
+			}
+			offsets[vertex] = write;
+			write += length;
+		}
+		offsets[vertexCount] = write;
+		if (write < targets.length) {
+			int[] trimmed = new int[write];
+			System.arraycopy(targets, 0, trimmed, 0, write);
+			targets = trimmed;
+		}
+		return new CSRGraph(vertexCount, offsets, targets, directed);
+	}
+
+	static void checkVertex(int vertex, int vertexCount) {
+		if (vertex < 0 || vertex >= vertexCount) {
+			throw new IndexOutOfBoundsException("Vertex " + vertex + " exceeds vertex count " + vertexCount);
+		}
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Number of entries in the adjacency lists. An undirected edge is counted
+	 * once for each of its end points.
+	 */
+	public int getArcCount() {
+		return targets.length;
+	}
+
+	public boolean isDirected() {
+		return directed;
+	}
+
+	/**
+	 * Vertices are numbered 0 to N - 1 internally. A graph loaded from a file
+	 * can carry the original id of every vertex, which is returned here; other
+	 * graphs return the vertex number itself.
+	 *
+	 * @param vertex
+	 * @return
+	 */
+	public long getVertexLabel(int vertex) {
+		return vertexLabels == null ? vertex : vertexLabels[vertex];
+	}
+
+	/**
+	 * @return a graph sharing the adjacency arrays of this one, with the given
+	 *         label for every vertex
+	 */
+	public CSRGraph withVertexLabels(long[] labels) {
+		if (labels != null && labels.length != vertexCount) {
+			throw new IllegalArgumentException("Expected " + vertexCount + " labels but got " + labels.length);
+		}
+		return new CSRGraph(vertexCount, offsets, targets, directed, labels);
+	}
+
+	public int degree(int vertex) {
+		return offsets[vertex + 1] - offsets[vertex];
+	}
+
+	public int neighbor(int vertex, int index) {
+		return targets[offsets[vertex] + index];
+	}
+
+	/**
+	 * Returns the graph with every arc reversed, so that the adjacency list of
+	 * a vertex holds its predecessors. The sources are walked in ascending
+	 * order, which keeps the reversed lists sorted too. An undirected graph is
+	 * its own transpose.
+	 *
+	 * @return
+	 */
+	public CSRGraph transpose() {
+		if (!directed) {
+			return this;
+		}
+		int[] inOffsets = new int[vertexCount + 1];
+		for (int arc = 0; arc < targets.length; arc++) {
+			inOffsets[targets[arc] + 1]++;
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			inOffsets[vertex + 1] += inOffsets[vertex];
+		}
+		int[] sources = new int[targets.length];
+		int[] cursor = new int[vertexCount];
+		System.arraycopy(inOffsets, 0, cursor, 0, vertexCount);
+		for (int source = 0; source < vertexCount; source++) {
+			for (int arc = offsets[source]; arc < offsets[source + 1]; arc++) {
+				sources[cursor[targets[arc]]++] = source;
+			}
+		}
+		return new CSRGraph(vertexCount, inOffsets, sources, true, vertexLabels);
+	}
+
+	/**
+	 * Returns the same graph with vertex v renumbered to newNumber[v], for
+	 * example to an order computed by VertexOrdering. The new adjacency lists
+	 * are sorted again, and getVertexLabel() of the new graph gives back the
+	 * label the vertex had here, so results can still be reported in the
+	 * original numbering.
+	 *
+	 * @param newNumber
+	 *            a permutation of 0 to N - 1
+	 * @return
+	 */
+	public CSRGraph permute(int[] newNumber) {
+		if (newNumber.length != vertexCount) {
+			throw new IllegalArgumentException("Expected " + vertexCount + " numbers but got " + newNumber.length);
+		}
+		int[] oldNumber = new int[vertexCount];
+		Arrays.fill(oldNumber, -1);
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			checkVertex(newNumber[vertex], vertexCount);
+			if (oldNumber[newNumber[vertex]] != -1) {
+				throw new IllegalArgumentException("Vertex number " + newNumber[vertex] + " is given out twice");
+			}
+			oldNumber[newNumber[vertex]] = vertex;
+		}
+		int[] newOffsets = new int[vertexCount + 1];
+		int[] newTargets = new int[targets.length];
+		long[] newLabels = new long[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			int old = oldNumber[vertex];
+			int start = newOffsets[vertex];
+			int end = start;
+			for (int arc = offsets[old]; arc < offsets[old + 1]; arc++) {
+				newTargets[end++] = newNumber[targets[arc]];
+			}
+			Arrays.sort(newTargets, start, end);
+			newOffsets[vertex + 1] = end;
+			newLabels[vertex] = getVertexLabel(old);
+		}
+		return new CSRGraph(vertexCount, newOffsets, newTargets, directed, newLabels);
+	}
+
+	/**
+	 * The matrix version of DFS asks getAdjacentUnvisitedVertex() to scan the
+	 * row of the vertex on top of the stack from column 0 every time, so a
+	 * vertex with many neighbors is rescanned once per neighbor. Here every
+	 * vertex keeps a cursor into its adjacency list that only moves forward,
+	 * so each edge is examined once and the search is O(N + E).
+	 *
+	 * Instead of printing, the search hands every vertex it visits to the
+	 * visitor as a plain int. The visitor returns false to stop the search
+	 * early, for example once a target vertex has been found.
+	 *
+	 * @param start
+	 * @param visitor
+	 * @return false if the visitor stopped the search
+	 */
+	public boolean traverseDFS(int start, IntPredicate visitor) {
+		return depthFirst(start, visitor, null);
+	}
+
+	/**
+	 * Depth first search that hands every edge it travels along, that is the
+	 * edges of the spanning tree, to the visitor.
+	 *
+	 * @param start
+	 * @param visitor
+	 * @return false if the visitor stopped the search
+	 */
+	public boolean traverseDFSTree(int start, EdgeVisitor visitor) {
+		return depthFirst(start, null, visitor);
+	}
+
+	boolean depthFirst(int start, IntPredicate vertexVisitor, EdgeVisitor edgeVisitor) {
+		checkVertex(start, vertexCount);
+		boolean[] visited = new boolean[vertexCount];
+		int[] cursor = new int[vertexCount];
+		int[] stack = new int[vertexCount];
+		int top = -1;
+		stack[++top] = start;
+		visited[start] = true;
+		cursor[start] = offsets[start];
+		if (vertexVisitor != null && !vertexVisitor.test(start)) {
+			return false;
+		}
+		while (top >= 0) {
+			int currentVertex = stack[top];
+			int adjVertex = -1;
+			int end = offsets[currentVertex + 1];
+			while (cursor[currentVertex] < end) {
+				int candidate = targets[cursor[currentVertex]++];
+				if (!visited[candidate]) {
+					adjVertex = candidate;
+					break;
+				}
+			}
+			if (adjVertex == -1) {
+				top--;
+			} else {
+				stack[++top] = adjVertex;
+				visited[adjVertex] = true;
+				cursor[adjVertex] = offsets[adjVertex];
+				if (edgeVisitor != null && !edgeVisitor.visit(currentVertex, adjVertex)) {
+					return false;
+				}
+				if (vertexVisitor != null && !vertexVisitor.test(adjVertex)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Breadth first search over the adjacency lists. The queue never holds a
+	 * vertex twice, so a plain array of size N is enough.
+	 *
+	 * @param start
+	 * @param visitor
+	 * @return false if the visitor stopped the search
+	 */
+	public boolean traverseBFS(int start, IntPredicate visitor) {
+		checkVertex(start, vertexCount);
+		boolean[] visited = new boolean[vertexCount];
+		int[] queue = new int[vertexCount];
+		int front = 0;
+		int rear = 0;
+		queue[rear++] = start;
+		visited[start] = true;
+		if (!visitor.test(start)) {
+			return false;
+		}
+		while (front < rear) {
+			int currentVertex = queue[front++];
+			for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+				int adjVertex = targets[arc];
+				if (!visited[adjVertex]) {
+					visited[adjVertex] = true;
+					queue[rear++] = adjVertex;
+					if (!visitor.test(adjVertex)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param start
+	 * @return the vertices in the order a depth first search visits them
+	 */
+	public int[] performDFS(int start) {
+		final int[] order = new int[vertexCount];
+		final int[] visitCount = new int[1];
+		traverseDFS(start, vertex -> {
+			order[visitCount[0]++] = vertex;
+			return true;
+		});
+		return trim(order, visitCount[0]);
+	}
+
+	/**
+	 * @param start
+	 * @return the vertices in the order a breadth first search visits them
+	 */
+	public int[] performBFS(int start) {
+		final int[] order = new int[vertexCount];
+		final int[] visitCount = new int[1];
+		traverseBFS(start, vertex -> {
+			order[visitCount[0]++] = vertex;
+			return true;
+		});
+		return trim(order, visitCount[0]);
+	}
+
+	/**
+	 * Records the edges traveled by the depth first search from start.
+	 *
+	 * @param start
+	 * @return the tree edges as pairs, {from0, to0, from1, to1, ...}
+	 */
+	public int[] performMST(int start) {
+		final int[] treeEdges = new int[2 * (vertexCount - 1)];
+		final int[] edgeIndex = new int[1];
+		traverseDFSTree(start, (from, to) -> {
+			treeEdges[edgeIndex[0]++] = from;
+			treeEdges[edgeIndex[0]++] = to;
+			return true;
+		});
+		return trim(treeEdges, edgeIndex[0]);
+	}
+
+	/**
+	 * @return an iterator that hands out the vertices in depth first order,
+	 *         one search step per call to nextInt()
+	 */
+	public PrimitiveIterator.OfInt dfsIterator(int start) {
+		checkVertex(start, vertexCount);
+		return new DFSIterator(this, start);
+	}
+
+	/**
+	 * @return an iterator that hands out the vertices in breadth first order
+	 */
+	public PrimitiveIterator.OfInt bfsIterator(int start) {
+		checkVertex(start, vertexCount);
+		return new BFSIterator(this, start);
+	}
+
+	/**
+	 * Sorts the vertices with TopologicalSort, which counts predecessors
+	 * instead of repeatedly searching for and deleting a vertex without
+	 * successors.
+	 *
+	 * @return the vertices in topological order, or null if the graph has a
+	 *         cycle
+	 */
+	public int[] performTopoSort() {
+		return new TopologicalSort(this).sort();
+	}
+
+	static int[] trim(int[] array, int length) {
+		if (length == array.length) {
+			return array;
+		}
+		int[] trimmed = new int[length];
+		System.arraycopy(array, 0, trimmed, 0, length);
+		return trimmed;
+	}
+}
+
+/**
+ * Depth first search turned inside out: the stack and the edge cursors are
+ * kept between calls, and every call to nextInt() runs the search just far
+ * enough to find the next vertex.
+ */
+class DFSIterator implements PrimitiveIterator.OfInt {
+	final CSRGraph graph;
+	final boolean[] visited;
+	final int[] cursor;
+	final int[] stack;
+	int top = -1;
+	int next;
+
+	DFSIterator(CSRGraph graph, int start) {
+		this.graph = graph;
+		visited = new boolean[graph.vertexCount];
+		cursor = new int[graph.vertexCount];
+		stack = new int[graph.vertexCount];
+		next = start;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return next != -1;
+	}
+
+	@Override
+	public int nextInt() {
+		if (next == -1) {
+			throw new NoSuchElementException();
+		}
+		int vertex = next;
+		stack[++top] = vertex;
+		visited[vertex] = true;
+		cursor[vertex] = graph.offsets[vertex];
+		next = -1;
+		while (top >= 0 && next == -1) {
+			int currentVertex = stack[top];
+			int end = graph.offsets[currentVertex + 1];
+			while (cursor[currentVertex] < end) {
+				int candidate = graph.targets[cursor[currentVertex]++];
+				if (!visited[candidate]) {
+					next = candidate;
+					break;
+				}
+			}
+			if (next == -1) {
+				top--;
+			}
+		}
+		return vertex;
+	}
+}
+
+class BFSIterator implements PrimitiveIterator.OfInt {
+	final CSRGraph graph;
+	final boolean[] visited;
+	final int[] queue;
+	int front = 0;
+	int rear = 0;
+
+	BFSIterator(CSRGraph graph, int start) {
+		this.graph = graph;
+		visited = new boolean[graph.vertexCount];
+		queue = new int[graph.vertexCount];
+		queue[rear++] = start;
+		visited[start] = true;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return front < rear;
+	}
+
+	@Override
+	public int nextInt() {
+		if (front == rear) {
+			throw new NoSuchElementException();
+		}
+		int currentVertex = queue[front++];
+		for (int arc = graph.offsets[currentVertex]; arc < graph.offsets[currentVertex + 1]; arc++) {
+			int adjVertex = graph.targets[arc];
+			if (!visited[adjVertex]) {
+				visited[adjVertex] = true;
+				queue[rear++] = adjVertex;
+			}
+		}
+		return currentVertex;
+	}
+}
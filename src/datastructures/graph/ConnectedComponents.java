@@ -0,0 +1,193 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+
+/**
+ * A connected component is a largest group of vertices in which every vertex
+ * can reach every other one. A search from vertex 0 only finds the component
+ * of vertex 0; to find them all, the search is restarted from every vertex
+ * that no earlier search reached, and each restart gives the vertices it
+ * reaches a new component number. Each vertex and edge is still looked at
+ * only once, O(N + E) in all.
+ *
+ * In a directed graph there are two notions. Weakly connected components
+ * ignore the direction of the edges, so the search follows both successors
+ * and predecessors. Strongly connected components require a directed path
+ * both ways, and are found with Tarjan's algorithm: a depth first search that
+ * numbers the vertices in the order it meets them and tracks, for every vertex,
+ * the lowest number reachable from its subtree (its low link). A vertex whose
+ * low link is its own number is the root of a component, and the component is
+ * everything above it on a separate stack of open vertices.
+ *
+ * Both searches are written with explicit arrays for the stacks rather than
+ * recursion, so a path of a million vertices can not overflow the call stack.
+ */
+public class ConnectedComponents {
+	final int[] component;
+	final int componentCount;
+
+	ConnectedComponents(int[] component, int componentCount) {
+		this.component = component;
+		this.componentCount = componentCount;
+	}
+
+	public static void main(String[] args) {
+		// AB BC DE and a lone F
+		int[] from = { 0, 1, 3 };
+		int[] to = { 1, 2, 4 };
+		ConnectedComponents components = of(CSRGraph.fromEdgeList(6, from, to, from.length, false));
+		System.out.println("Components : " + components.getComponentCount() + " "
+				+ Arrays.toString(components.getComponent()));
+
+		// AB BC CA CD DE ED : {A B C} {D E}
+		from = new int[] { 0, 1, 2, 2, 3, 4 };
+		to = new int[] { 1, 2, 0, 3, 4, 3 };
+		components = strong(CSRGraph.fromEdgeList(5, from, to, from.length, true));
+		System.out.println("Strongly connected components : " + components.getComponentCount() + " "
+				+ Arrays.toString(components.getComponent()));
+
+		UnionFind unionFind = new UnionFind(6);
+		for (int edge = 0; edge < from.length; edge++) {
+			unionFind.union(from[edge], to[edge]);
+			System.out.println("After edge " + CSRGraph.label(from[edge]) + CSRGraph.label(to[edge]) + " : "
+					+ unionFind.getComponentCount() + " components");
+		}
+	}
+
+	/**
+	 * @return the component number of every vertex, from 0 to
+	 *         getComponentCount() - 1
+	 */
+	public int[] getComponent() {
+		return component;
+	}
+
+	public int getComponentCount() {
+		return componentCount;
+	}
+
+	/**
+	 * @return the number of vertices in each component
+	 */
+	public int[] getComponentSizes() {
+		int[] sizes = new int[componentCount];
+		for (int vertex = 0; vertex < component.length; vertex++) {
+			sizes[component[vertex]]++;
+		}
+		return sizes;
+	}
+
+	/**
+	 * Connected components of an undirected graph, or weakly connected
+	 * components of a directed one.
+	 *
+	 * @param graph
+	 * @return
+	 */
+	public static ConnectedComponents of(CSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		CSRGraph predecessors = graph.directed ? graph.transpose() : null;
+		int[] component = new int[vertexCount];
+		Arrays.fill(component, -1);
+		int[] queue = new int[vertexCount];
+		int componentCount = 0;
+		for (int start = 0; start < vertexCount; start++) {
+			if (component[start] != -1) {
+				continue;
+			}
+			int front = 0;
+			int rear = 0;
+			queue[rear++] = start;
+			component[start] = componentCount;
+			while (front < rear) {
+				int currentVertex = queue[front++];
+				rear = label(graph, currentVertex, component, componentCount, queue, rear);
+				if (predecessors != null) {
+					rear = label(predecessors, currentVertex, component, componentCount, queue, rear);
+				}
+			}
+			componentCount++;
+		}
+		return new ConnectedComponents(component, componentCount);
+	}
+
+	static int label(CSRGraph graph, int vertex, int[] component, int componentNumber, int[] queue, int rear) {
+		for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+			int adjVertex = graph.targets[arc];
+			if (component[adjVertex] == -1) {
+				component[adjVertex] = componentNumber;
+				queue[rear++] = adjVertex;
+			}
+		}
+		return rear;
+	}
+
+	/**
+	 * Strongly connected components by Tarjan's algorithm. Components are
+	 * numbered in the order they are completed, which is a reverse topological
+	 * order of the component graph.
+	 *
+	 * @param graph
+	 * @return
+	 */
+	public static ConnectedComponents strong(CSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		int[] number = new int[vertexCount];
+		int[] lowLink = new int[vertexCount];
+		int[] component = new int[vertexCount];
+		Arrays.fill(number, -1);
+		Arrays.fill(component, -1);
+		int[] cursor = new int[vertexCount];
+		int[] callStack = new int[vertexCount];
+		int[] openStack = new int[vertexCount];
+		int callTop = -1;
+		int openTop = -1;
+		int counter = 0;
+		int componentCount = 0;
+		for (int start = 0; start < vertexCount; start++) {
+			if (number[start] != -1) {
+				continue;
+			}
+			number[start] = lowLink[start] = counter++;
+			cursor[start] = offsets[start];
+			callStack[++callTop] = start;
+			openStack[++openTop] = start;
+			while (callTop >= 0) {
+				int vertex = callStack[callTop];
+				if (cursor[vertex] < offsets[vertex + 1]) {
+					int successor = targets[cursor[vertex]++];
+					if (number[successor] == -1) {
+						// "Call" the successor
+						number[successor] = lowLink[successor] = counter++;
+						cursor[successor] = offsets[successor];
+						callStack[++callTop] = successor;
+						openStack[++openTop] = successor;
+					} else if (component[successor] == -1 && number[successor] < lowLink[vertex]) {
+						// Still open, so it is on the current path's component
+						lowLink[vertex] = number[successor];
+					}
+					continue;
+				}
+				// "Return" from vertex
+				callTop--;
+				if (lowLink[vertex] == number[vertex]) {
+					int member;
+					do {
+						member = openStack[openTop--];
+						component[member] = componentCount;
+					} while (member != vertex);
+					componentCount++;
+				}
+				if (callTop >= 0) {
+					int caller = callStack[callTop];
+					if (lowLink[vertex] < lowLink[caller]) {
+						lowLink[caller] = lowLink[vertex];
+					}
+				}
+			}
+		}
+		return new ConnectedComponents(component, componentCount);
+	}
+}
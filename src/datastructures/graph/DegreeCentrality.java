@@ -0,0 +1,77 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+
+/**
+ * Degree centrality is the simplest importance score of a vertex: the number
+ * of edges it touches. In a directed graph the arcs leaving a vertex
+ * (out-degree, how many others it points to) and the arcs entering it
+ * (in-degree, how many point to it) are counted apart. Every method is a
+ * single pass over the CSR arrays, O(N) for the out-degree and O(N + E) for
+ * the in-degree, and returns a primitive array indexed by vertex.
+ */
+public class DegreeCentrality {
+
+	public static void main(String[] args) {
+		// Same graph as Graph.initializeGraphForTopoSort(): AD AE BE CF DG EG FH GH
+		int[] from = { 0, 0, 1, 2, 3, 4, 5, 6 };
+		int[] to = { 3, 4, 4, 5, 6, 6, 7, 7 };
+		CSRGraph graph = CSRGraph.fromEdgeList(8, from, to, from.length, true);
+		System.out.println("Out-degree : " + Arrays.toString(outDegree(graph)));
+		System.out.println("In-degree : " + Arrays.toString(inDegree(graph)));
+		System.out.println("Degree : " + Arrays.toString(degree(graph)));
+		System.out.println("Normalized degree : " + Arrays.toString(normalize(degree(graph))));
+	}
+
+	public static int[] outDegree(CSRGraph graph) {
+		int[] outDegree = new int[graph.vertexCount];
+		for (int vertex = 0; vertex < graph.vertexCount; vertex++) {
+			outDegree[vertex] = graph.offsets[vertex + 1] - graph.offsets[vertex];
+		}
+		return outDegree;
+	}
+
+	/**
+	 * For an undirected graph this equals the out-degree.
+	 */
+	public static int[] inDegree(CSRGraph graph) {
+		if (!graph.directed) {
+			return outDegree(graph);
+		}
+		int[] inDegree = new int[graph.vertexCount];
+		int[] targets = graph.targets;
+		for (int arc = 0; arc < targets.length; arc++) {
+			inDegree[targets[arc]]++;
+		}
+		return inDegree;
+	}
+
+	/**
+	 * @return the number of edges touching every vertex, in-degree plus
+	 *         out-degree in a directed graph
+	 */
+	public static int[] degree(CSRGraph graph) {
+		int[] degree = outDegree(graph);
+		if (graph.directed) {
+			int[] targets = graph.targets;
+			for (int arc = 0; arc < targets.length; arc++) {
+				degree[targets[arc]]++;
+			}
+		}
+		return degree;
+	}
+
+	/**
+	 * Divides every degree by N - 1, the most edges a vertex can have to other
+	 * vertices, so scores of graphs of different size can be compared.
+	 */
+	public static double[] normalize(int[] degree) {
+		double[] normalized = new double[degree.length];
+		if (degree.length > 1) {
+			for (int vertex = 0; vertex < degree.length; vertex++) {
+				normalized[vertex] = (double) degree[vertex] / (degree.length - 1);
+			}
+		}
+		return normalized;
+	}
+}
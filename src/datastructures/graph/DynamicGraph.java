@@ -0,0 +1,300 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+
+/**
+ * Graph fixes the number of vertices when it is created, and deleteVertex()
+ * moves every row and column of the matrix behind the deleted vertex. That is
+ * fine for a graph built once, but not for one that keeps receiving new
+ * vertices and edges and losing old ones. This class is built for such a
+ * stream of changes:
+ *
+ * 1) Adding a vertex appends a new, empty adjacency list. The array of lists
+ * doubles when it is full, so an addition costs O(1) on average (amortized),
+ * the way ArrayList grows.
+ *
+ * 2) Adding or removing an edge looks through the adjacency list of its end
+ * points only, O(degree).
+ *
+ * 3) Deleting a vertex drops its own adjacency list and marks the vertex
+ * dead (a tombstone), O(degree). Its number is never handed out again. The
+ * entries that other vertices still hold for it are not hunted down one by
+ * one; they are skipped by everyone who reads the lists, and once they make
+ * up a good part of all entries a single compaction pass removes them all.
+ * The pass is O(N + E), but it only runs after as many deletions as there
+ * are live entries, so each deletion pays O(1) for it on average.
+ *
+ * Readers never see the lists while they change. snapshot() copies the live
+ * part of the graph into an immutable CSRGraph, renumbering the live vertices
+ * densely and keeping their numbers in this graph as the vertex labels. All
+ * searches and algorithms then run on the snapshot, from any number of
+ * threads, while changes go on. The snapshot is cached until the next change,
+ * so readers asking between changes share one copy.
+ */
+public class DynamicGraph {
+	static final int INITIAL_CAPACITY = 16;
+
+	final boolean directed;
+	int[][] adjacency;
+	int[] degree;
+	int[] inDegree;
+	boolean[] deleted;
+	int vertexCount;
+	int liveVertexCount;
+	long liveArcCount;
+	long staleArcCount;
+	volatile CSRGraph snapshot;
+
+	public DynamicGraph(boolean directed) {
+		this.directed = directed;
+		adjacency = new int[INITIAL_CAPACITY][];
+		degree = new int[INITIAL_CAPACITY];
+		inDegree = new int[INITIAL_CAPACITY];
+		deleted = new boolean[INITIAL_CAPACITY];
+	}
+
+	public static void main(String[] args) {
+		DynamicGraph graph = new DynamicGraph(false);
+		for (int vertex = 0; vertex < 6; vertex++) {
+			graph.addVertex();
+		}
+		graph.addEdge(0, 1); // AB
+		graph.addEdge(1, 2); // BC
+		graph.addEdge(2, 3); // CD
+		graph.addEdge(3, 4); // DE
+		graph.addEdge(4, 5); // EF
+		CSRGraph before = graph.snapshot();
+		graph.deleteVertex(2);
+		graph.removeEdge(4, 5);
+		int vertexG = graph.addVertex();
+		graph.addEdge(vertexG, 1); // GB
+		CSRGraph after = graph.snapshot();
+		System.out.print("Snapshot before changes, BFS from A : ");
+		printLabels(before, before.performBFS(0));
+		System.out.print("\nSnapshot after changes, BFS from A : ");
+		printLabels(after, after.performBFS(0));
+		System.out.println();
+	}
+
+	static void printLabels(CSRGraph graph, int[] vertices) {
+		for (int index = 0; index < vertices.length; index++) {
+			System.out.print(CSRGraph.label((int) graph.getVertexLabel(vertices[index])));
+		}
+	}
+
+	/**
+	 * @return the number of vertex numbers handed out, deleted ones included
+	 */
+	public synchronized int getVertexCount() {
+		return vertexCount;
+	}
+
+	public synchronized int getLiveVertexCount() {
+		return liveVertexCount;
+	}
+
+	public synchronized boolean isDeleted(int vertex) {
+		return deleted[vertex];
+	}
+
+	/**
+	 * @return the number of the new vertex
+	 */
+	public synchronized int addVertex() {
+		if (vertexCount == adjacency.length) {
+			int capacity = 2 * adjacency.length;
+			adjacency = Arrays.copyOf(adjacency, capacity);
+			degree = Arrays.copyOf(degree, capacity);
+			inDegree = Arrays.copyOf(inDegree, capacity);
+			deleted = Arrays.copyOf(deleted, capacity);
+		}
+		adjacency[vertexCount] = new int[4];
+		liveVertexCount++;
+		changed();
+		return vertexCount++;
+	}
+
+	void checkLive(int vertex) {
+		if (vertex < 0 || vertex >= vertexCount || deleted[vertex]) {
+			throw new IllegalArgumentException("No such vertex : " + vertex);
+		}
+	}
+
+	/**
+	 * Adds an undirected edge, or a directed one in a directed graph.
+	 *
+	 * @return false if the edge was already there
+	 */
+	public synchronized boolean addEdge(int vertexIndexA, int vertexIndexB) {
+		checkLive(vertexIndexA);
+		checkLive(vertexIndexB);
+		if (indexOf(vertexIndexA, vertexIndexB) != -1) {
+			return false;
+		}
+		append(vertexIndexA, vertexIndexB);
+		inDegree[vertexIndexB]++;
+		if (!directed && vertexIndexA != vertexIndexB) {
+			append(vertexIndexB, vertexIndexA);
+			inDegree[vertexIndexA]++;
+		}
+		changed();
+		return true;
+	}
+
+	/**
+	 * @return false if there was no such edge
+	 */
+	public synchronized boolean removeEdge(int vertexIndexA, int vertexIndexB) {
+		checkLive(vertexIndexA);
+		checkLive(vertexIndexB);
+		if (!removeArc(vertexIndexA, vertexIndexB)) {
+			return false;
+		}
+		if (!directed && vertexIndexA != vertexIndexB) {
+			removeArc(vertexIndexB, vertexIndexA);
+		}
+		changed();
+		return true;
+	}
+
+	/**
+	 * Tombstones the vertex. Its own list is dropped now; the entries other
+	 * lists hold for it (inDegree of them) become stale and are cleaned up by
+	 * the next compaction.
+	 */
+	public synchronized void deleteVertex(int vertex) {
+		checkLive(vertex);
+		int[] list = adjacency[vertex];
+		for (int index = 0; index < degree[vertex]; index++) {
+			int target = list[index];
+			if (!deleted[target]) {
+				inDegree[target]--;
+				liveArcCount--;
+			}
+		}
+		// What is left of inDegree are the entries in other live lists
+		int incoming = inDegree[vertex];
+		liveArcCount -= incoming;
+		staleArcCount += incoming;
+		adjacency[vertex] = null;
+		degree[vertex] = 0;
+		inDegree[vertex] = 0;
+		deleted[vertex] = true;
+		liveVertexCount--;
+		if (staleArcCount > liveArcCount) {
+			compact();
+		}
+		changed();
+	}
+
+	/**
+	 * Removes the entries for deleted vertices from every adjacency list and
+	 * shrinks lists that have become mostly empty.
+	 */
+	public synchronized void compact() {
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			int[] list = adjacency[vertex];
+			if (list == null) {
+				continue;
+			}
+			int write = 0;
+			for (int index = 0; index < degree[vertex]; index++) {
+				if (!deleted[list[index]]) {
+					list[write++] = list[index];
+				}
+			}
+			degree[vertex] = write;
+			if (list.length > 4 && write < list.length / 4) {
+				adjacency[vertex] = Arrays.copyOf(list, Math.max(4, 2 * write));
+			}
+		}
+		staleArcCount = 0;
+	}
+
+	/**
+	 * Returns an immutable copy of the live graph. Vertices are renumbered
+	 * 0 to getLiveVertexCount() - 1 in the order of their numbers here, and
+	 * getVertexLabel() of the snapshot gives back the number in this graph.
+	 * Adjacency lists are sorted, as in every CSRGraph.
+	 *
+	 * @return
+	 */
+	public CSRGraph snapshot() {
+		CSRGraph current = snapshot;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (snapshot == null) {
+				snapshot = buildSnapshot();
+			}
+			return snapshot;
+		}
+	}
+
+	CSRGraph buildSnapshot() {
+		int[] newNumber = new int[vertexCount];
+		long[] labels = new long[liveVertexCount];
+		int live = 0;
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (!deleted[vertex]) {
+				labels[live] = vertex;
+				newNumber[vertex] = live++;
+			}
+		}
+		int arcCount = (int) liveArcCount;
+		int[] from = new int[arcCount];
+		int[] to = new int[arcCount];
+		int arc = 0;
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			int[] list = adjacency[vertex];
+			for (int index = 0; index < degree[vertex]; index++) {
+				if (!deleted[list[index]]) {
+					from[arc] = newNumber[vertex];
+					to[arc] = newNumber[list[index]];
+					arc++;
+				}
+			}
+		}
+		// Both directions of an undirected edge are already in the lists
+		CSRGraph arcs = CSRGraph.fromEdgeList(live, from, to, arc, true);
+		return new CSRGraph(live, arcs.offsets, arcs.targets, directed, labels);
+	}
+
+	void changed() {
+		snapshot = null;
+	}
+
+	int indexOf(int vertex, int target) {
+		int[] list = adjacency[vertex];
+		for (int index = 0; index < degree[vertex]; index++) {
+			if (list[index] == target) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	void append(int vertex, int target) {
+		if (degree[vertex] == adjacency[vertex].length) {
+			adjacency[vertex] = Arrays.copyOf(adjacency[vertex], 2 * degree[vertex]);
+		}
+		adjacency[vertex][degree[vertex]++] = target;
+		liveArcCount++;
+	}
+
+	/**
+	 * Removes target from the list of vertex by moving the last entry into its
+	 * place; the order of an adjacency list carries no meaning here.
+	 */
+	boolean removeArc(int vertex, int target) {
+		int index = indexOf(vertex, target);
+		if (index == -1) {
+			return false;
+		}
+		adjacency[vertex][index] = adjacency[vertex][--degree[vertex]];
+		inDegree[target]--;
+		liveArcCount--;
+		return true;
+	}
+}
@@ -0,0 +1,371 @@
+package datastructures.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a graph from an edge list file straight into a CSRGraph. Two formats
+ * are understood:
+ *
+ * 1) Text : one edge per line, written as two vertex ids separated by spaces
+ * or tabs. Lines starting with # or % are comments.
+ *
+ * 2) Binary : one edge per 16 bytes, the two vertex ids as little-endian
+ * 64-bit integers.
+ *
+ * Vertex ids are arbitrary 64-bit numbers; they do not need to be dense or
+ * start at 0, so there is no limit like the 65,536 labels of a char. Every id
+ * is given a vertex number in the order the ids first appear in the file, and
+ * the resulting graph remembers the id of every vertex as its label.
+ *
+ * The file is read through memory mapped buffers, so the operating system
+ * pages it in directly with no copying through a stream. It is cut into one
+ * chunk per core, each chunk ending at a line (or record) boundary, and the
+ * chunks are parsed in parallel into primitive long arrays; no object is
+ * created per edge. Only the translation of ids to vertex numbers runs on a
+ * single thread, because the numbering must not depend on thread timing.
+ */
+public class EdgeListLoader {
+	static final int RECORD_SIZE = 16;
+	// A mapped buffer can not be larger than 2 GB, so chunks stay below half
+	// of that to leave room for moving their ends to a line boundary
+	static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE / 2;
+
+	final boolean binary;
+	final boolean directed;
+	final int chunkCount;
+
+	public EdgeListLoader(boolean binary, boolean directed) {
+		this(binary, directed, Runtime.getRuntime().availableProcessors());
+	}
+
+	public EdgeListLoader(boolean binary, boolean directed, int chunkCount) {
+		this.binary = binary;
+		this.directed = directed;
+		this.chunkCount = chunkCount;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+		File text = File.createTempFile("edges", ".txt");
+		File binary = File.createTempFile("edges", ".bin");
+		text.deleteOnExit();
+		binary.deleteOnExit();
+		Random random = new Random(42);
+		try (BufferedWriter writer = new BufferedWriter(new FileWriter(text));
+				DataOutputStream output = new DataOutputStream(
+						new BufferedOutputStream(new FileOutputStream(binary)))) {
+			writer.write("# source target\n");
+			for (int edge = 0; edge < edgeCount; edge++) {
+				// Sparse ids, far beyond the range of a char
+				long source = 1000000000L + random.nextInt(edgeCount / 4) * 7919L;
+				long target = 1000000000L + random.nextInt(edgeCount / 4) * 7919L;
+				writer.write(source + "\t" + target + "\n");
+				output.writeLong(Long.reverseBytes(source));
+				output.writeLong(Long.reverseBytes(target));
+			}
+		}
+		for (File file : new File[] { text, binary }) {
+			long begin = System.nanoTime();
+			CSRGraph graph = new EdgeListLoader(file == binary, false).load(file.getPath());
+			System.out.println("Loaded " + file.length() / (1024 * 1024) + " MB " + (file == binary ? "binary" : "text")
+					+ " file : " + graph.getVertexCount() + " vertices, " + graph.getArcCount() + " arcs in "
+					+ (System.nanoTime() - begin) / 1000000 + " ms. Vertex 0 is " + graph.getVertexLabel(0));
+		}
+	}
+
+	public CSRGraph load(String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+			final FileChannel channel = file.getChannel();
+			final long[] bounds = chunkBounds(channel);
+			final long[][] chunkEdges = new long[bounds.length - 1][];
+			final int[] chunkLengths = new int[bounds.length - 1];
+			try {
+				IntStream.range(0, bounds.length - 1).parallel().forEach(chunk -> {
+					try {
+						long size = bounds[chunk + 1] - bounds[chunk];
+						if (size > Integer.MAX_VALUE) {
+							throw new IOException("Line too long near byte " + bounds[chunk]);
+						}
+						LongList edges = new LongList();
+						MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], size);
+						if (binary) {
+							parseBinary(buffer, edges);
+						} else {
+							parseText(buffer, bounds[chunk], edges);
+						}
+						chunkEdges[chunk] = edges.values;
+						chunkLengths[chunk] = edges.size;
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			return build(chunkEdges, chunkLengths);
+		}
+	}
+
+	/**
+	 * Cuts the file into chunkCount pieces of about the same size. Each cut is
+	 * moved forward to just after the next newline (text) or to a multiple of
+	 * the record size (binary), so no edge is split between two chunks. Large
+	 * files get more chunks than cores so that every chunk fits in a single
+	 * mapped buffer.
+	 */
+	long[] chunkBounds(FileChannel channel) throws IOException {
+		long length = channel.size();
+		int pieces = (int) Math.max(chunkCount, (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+		if (binary && length % RECORD_SIZE != 0) {
+			throw new IOException("Binary edge list length " + length + " is not a multiple of " + RECORD_SIZE);
+		}
+		long[] bounds = new long[pieces + 1];
+		bounds[pieces] = length;
+		for (int piece = 1; piece < pieces; piece++) {
+			long cut = Math.max(bounds[piece - 1], length / pieces * piece);
+			if (binary) {
+				cut -= cut % RECORD_SIZE;
+			} else {
+				cut = nextLineStart(channel, cut, length);
+			}
+			bounds[piece] = Math.min(Math.max(cut, bounds[piece - 1]), length);
+		}
+		return bounds;
+	}
+
+	static long nextLineStart(FileChannel channel, long position, long length) throws IOException {
+		if (position == 0) {
+			return 0;
+		}
+		// Step back one byte so that a cut right after a newline stays there
+		position--;
+		while (position < length) {
+			long size = Math.min(4096, length - position);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+			for (int index = 0; index < size; index++) {
+				if (buffer.get(index) == '\n') {
+					return position + index + 1;
+				}
+			}
+			position += size;
+		}
+		return length;
+	}
+
+	static void parseBinary(MappedByteBuffer buffer, LongList edges) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		int limit = buffer.limit();
+		edges.ensureCapacity(edges.size + limit / 8);
+		for (int index = 0; index < limit; index += 8) {
+			edges.values[edges.size++] = buffer.getLong(index);
+		}
+	}
+
+	/**
+	 * A hand written number parser over the raw bytes. Going through String or
+	 * Scanner would allocate several objects per line.
+	 */
+	static void parseText(MappedByteBuffer buffer, long position, LongList edges) throws IOException {
+		int limit = buffer.limit();
+		int index = 0;
+		while (index < limit) {
+			byte current = buffer.get(index);
+			if (current == '#' || current == '%') {
+				while (index < limit && buffer.get(index) != '\n') {
+					index++;
+				}
+				continue;
+			}
+			if (current == ' ' || current == '\t' || current == '\r' || current == '\n') {
+				index++;
+				continue;
+			}
+			int idsOnLine = 0;
+			while (index < limit && buffer.get(index) != '\n') {
+				current = buffer.get(index);
+				if (current == ' ' || current == '\t' || current == '\r') {
+					index++;
+					continue;
+				}
+				boolean negative = current == '-';
+				if (negative) {
+					index++;
+				}
+				int digitStart = index;
+				long value = 0;
+				while (index < limit && (current = buffer.get(index)) >= '0' && current <= '9') {
+					value = value * 10 + (current - '0');
+					index++;
+				}
+				if (index == digitStart) {
+					throw new IOException("Unexpected character '" + (char) current + "' at byte " + (position + index));
+				}
+				edges.add(negative ? -value : value);
+				idsOnLine++;
+			}
+			if (idsOnLine != 2) {
+				throw new IOException("Expected 2 vertex ids on the line ending at byte " + (position + index));
+			}
+		}
+	}
+
+	/**
+	 * Numbers the ids in file order and builds the graph. The id pairs of all
+	 * chunks are rewritten in place into vertex numbers, so no second copy of
+	 * the edge list is made apart from the int arrays fed to the CSR build.
+	 */
+	CSRGraph build(long[][] chunkEdges, int[] chunkLengths) {
+		long total = 0;
+		for (int chunk = 0; chunk < chunkEdges.length; chunk++) {
+			total += chunkLengths[chunk] / 2;
+		}
+		if (total > Integer.MAX_VALUE / (directed ? 1 : 2)) {
+			throw new IllegalArgumentException("Too many edges for a CSRGraph : " + total);
+		}
+		int edgeCount = (int) total;
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		LongIntHashMap vertexNumbers = new LongIntHashMap(1024);
+		LongList labels = new LongList();
+		int edge = 0;
+		for (int chunk = 0; chunk < chunkEdges.length; chunk++) {
+			long[] values = chunkEdges[chunk];
+			for (int index = 0; index < chunkLengths[chunk]; index += 2) {
+				from[edge] = vertexNumber(vertexNumbers, labels, values[index]);
+				to[edge] = vertexNumber(vertexNumbers, labels, values[index + 1]);
+				edge++;
+			}
+			chunkEdges[chunk] = null;
+		}
+		return CSRGraph.fromEdgeList(labels.size, from, to, edgeCount, directed)
+				.withVertexLabels(labels.toArray());
+	}
+
+	static int vertexNumber(LongIntHashMap vertexNumbers, LongList labels, long id) {
+		int vertex = vertexNumbers.get(id);
+		if (vertex == -1) {
+			vertex = labels.size;
+			vertexNumbers.put(id, vertex);
+			labels.add(id);
+		}
+		return vertex;
+	}
+}
+
+/**
+ * A growable long[], like ArrayList<Long> but without a Long object per value.
+ */
+class LongList {
+	long[] values = new long[1024];
+	int size;
+
+	void add(long value) {
+		if (size == values.length) {
+			ensureCapacity(size + 1);
+		}
+		values[size++] = value;
+	}
+
+	void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			long newLength = Math.max(capacity, values.length + (values.length >> 1));
+			long[] grown = new long[(int) Math.min(newLength, Integer.MAX_VALUE - 8)];
+			System.arraycopy(values, 0, grown, 0, size);
+			values = grown;
+		}
+	}
+
+	long[] toArray() {
+		long[] array = new long[size];
+		System.arraycopy(values, 0, array, 0, size);
+		return array;
+	}
+}
+
+/**
+ * An open addressing hash map from long keys to non-negative int values. Keys
+ * and values live in two parallel arrays and collisions are resolved by linear
+ * probing; a value of -1 marks an empty slot. The table doubles when it is
+ * half full.
+ */
+class LongIntHashMap {
+	long[] keys;
+	int[] values;
+	int size;
+	int mask;
+
+	LongIntHashMap(int capacity) {
+		int tableSize = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1);
+		keys = new long[tableSize];
+		values = new int[tableSize];
+		Arrays.fill(values, -1);
+		mask = tableSize - 1;
+	}
+
+	static int hash(long key) {
+		// Finalizer of MurmurHash3, spreads nearby keys over the whole table
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	int get(long key) {
+		int slot = hash(key) & mask;
+		while (values[slot] != -1) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	void put(long key, int value) {
+		if (2 * (size + 1) > keys.length) {
+			rehash();
+		}
+		int slot = hash(key) & mask;
+		while (values[slot] != -1) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		size++;
+	}
+
+	void rehash() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		Arrays.fill(values, -1);
+		mask = keys.length - 1;
+		size = 0;
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldValues[slot] != -1) {
+				put(oldKeys[slot], oldValues[slot]);
+			}
+		}
+	}
+}
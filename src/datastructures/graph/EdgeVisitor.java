@@ -0,0 +1,10 @@
+package datastructures.graph;
+
+/**
+ * Receives the edges a search travels along, for example the edges of a
+ * spanning tree, as two plain ints so that nothing is boxed. Returning false
+ * stops the search.
+ */
+public interface EdgeVisitor {
+	boolean visit(int from, int to);
+}
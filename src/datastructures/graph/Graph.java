@@ -3,6 +3,8 @@ package datastructures.graph;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
 
 /**
  * Graphs are data structures rather like trees. In fact, in a mathematical
@@ -26,7 +28,10 @@ import java.io.InputStreamReader;
  * the adjacency matrix is an NxN array. adjacency list is an array of lists
  * Each individual list shows what vertices a given vertex is adjacent to.
  * Within the Graph class, vertices are identified by their index number in
- * vertexList. Following solutions are implemented
+ * vertexList. Each Graph is an independent object, and the searches keep their
+ * visit history to themselves, so one graph can be searched by many threads at
+ * once. The component queries share one UnionFind, which changes even while
+ * it answers, so they lock the graph. Following solutions are implemented
  * 
  * 1) Depth First Search
  * 
@@ -36,13 +41,20 @@ import java.io.InputStreamReader;
  * 
  * 4) Topological Sorting
  * 
+ * The adjacency matrix suits small, dense graphs. For large sparse graphs use
+ * toCSRGraph() or build a CSRGraph directly from an edge list; it offers the
+ * same four solutions in O(N + E), and ConnectedComponents labels every vertex
+ * with its (strongly) connected component in one pass. BitMatrixGraph keeps a
+ * matrix at one bit per cell for large dense graphs.
+ * 
  * @author vshanmughada
  *
  */
 public class Graph {
-	static Vertex[] vertexList;
-	static int[][] adjacencyMatrix;
-	static int vertexCount;
+	final Vertex[] vertexList;
+	final int[][] adjacencyMatrix;
+	int vertexCount;
+	UnionFind components;
 
 	Graph(int vertexSize) {
 		vertexList = new Vertex[vertexSize];
@@ -59,20 +71,16 @@ public class Graph {
 			char choice = getChar();
 			switch (choice) {
 			case 'D':
-				initializeGraphForDFS();
-				performDFS();
+				initializeGraphForDFS().performDFS();
 				break;
 			case 'B':
-				initializeGraphForBFS();
-				performBFS();
+				initializeGraphForBFS().performBFS();
 				break;
 			case 'M':
-				initializeGraphForMST();
-				performMST();
+				initializeGraphForMST().performMST();
 				break;
 			case 'T':
-				initializeGraphForTopoSort();
-				performTopoSort();
+				initializeGraphForTopoSort().performTopoSort();
 				break;
 			default:
 				System.out.println("Invalid Entry !!");
@@ -82,7 +90,7 @@ public class Graph {
 		} while (isContinue == 'Y');
 	}
 
-	static void initializeGraphForDFS() {
+	static Graph initializeGraphForDFS() {
 		Graph graph = new Graph(9);
 		graph.addVertex('A'); // 0 (start for dfs)
 		graph.addVertex('B'); // 1
@@ -102,10 +110,10 @@ public class Graph {
 		graph.addEdge(6, 8); // GI
 		graph.addEdge(0, 4); // AE
 
-		resetVisitHistory();
+		return graph;
 	}
 
-	static void initializeGraphForBFS() {
+	static Graph initializeGraphForBFS() {
 		Graph graph = new Graph(5);
 		graph.addVertex('A'); // 0 (start for bfs)
 		graph.addVertex('B'); // 1
@@ -116,10 +124,10 @@ public class Graph {
 		graph.addEdge(1, 2); // BC
 		graph.addEdge(0, 3); // AD
 		graph.addEdge(3, 4); // DE
-		resetVisitHistory();
+		return graph;
 	}
 
-	static void initializeGraphForMST() {
+	static Graph initializeGraphForMST() {
 		Graph graph = new Graph(5);
 		graph.addVertex('A'); // 0 (start for mst)
 		graph.addVertex('B'); // 1
@@ -137,10 +145,10 @@ public class Graph {
 		graph.addEdge(2, 4); // CE
 		graph.addEdge(3, 4); // DE
 
-		resetVisitHistory();
+		return graph;
 	}
 
-	static void initializeGraphForTopoSort() {
+	static Graph initializeGraphForTopoSort() {
 		Graph graph = new Graph(8);
 		graph.addVertex('A'); // 0 (start for topo sort)
 		graph.addVertex('B'); // 1
@@ -159,13 +167,7 @@ public class Graph {
 		graph.addDirectedEdge(5, 7); // FH
 		graph.addDirectedEdge(6, 7); // GH
 
-		resetVisitHistory();
-	}
-
-	static void resetVisitHistory() {
-		for (int index = 0; index < vertexList.length; index++) {
-			vertexList[index].wasVisited = false;
-		}
+		return graph;
 	}
 
 	static char getChar() {
@@ -180,7 +182,7 @@ public class Graph {
 		return str.charAt(0);
 	}
 
-	public static int getVertexCount() {
+	public int getVertexCount() {
 		return vertexCount;
 	}
 
@@ -203,12 +205,21 @@ public class Graph {
 		vertexList[vertexCount++] = vertex;
 	}
 
+	/**
+	 * Adds an undirected edge between two vertices already added. Slots of
+	 * vertexList not yet filled by addVertex() take no edges, so that they
+	 * stay single vertex sets for getComponentCount().
+	 * 
+	 * @param vertexIndexA
+	 * @param vertexIndexB
+	 */
 	void addEdge(int vertexIndexA, int vertexIndexB) {
-		if (vertexIndexA < vertexList.length && vertexIndexB < vertexList.length) {
+		if (vertexIndexA < vertexCount && vertexIndexB < vertexCount) {
 			adjacencyMatrix[vertexIndexA][vertexIndexB] = 1;
 			adjacencyMatrix[vertexIndexB][vertexIndexA] = 1;
+			unionTracked(vertexIndexA, vertexIndexB);
 		} else {
-			System.out.println("Adjacency Matrix index exceeds max size");
+			System.out.println("Vertex index exceeds vertex count!!");
 		}
 	}
 
@@ -220,14 +231,100 @@ public class Graph {
 	 * @param vertexIndexB
 	 */
 	void addDirectedEdge(int row, int col) {
-		if (row < vertexList.length && col < vertexList.length) {
+		if (row < vertexCount && col < vertexCount) {
 			adjacencyMatrix[row][col] = 1;
+			unionTracked(row, col);
 		} else {
-			System.out.println("Adjacency Matrix index exceeds max size");
+			System.out.println("Vertex index exceeds vertex count!!");
+		}
+	}
+
+	/**
+	 * From now on, keeps a UnionFind up to date as edges are added, so that
+	 * areConnected() and getComponentCount() answer in O(alpha(N)) instead of
+	 * running a search. Edges already in the graph are taken over first.
+	 * Directed edges are treated as undirected (weak connectivity).
+	 * 
+	 * UnionFind.find() compresses paths, so even a query writes to the
+	 * UnionFind. All methods that touch it are synchronized on the graph, and
+	 * it is built once, when tracking starts.
+	 */
+	synchronized void trackComponents() {
+		components = new UnionFind(vertexList.length);
+		for (int row = 0; row < vertexCount; row++) {
+			for (int col = 0; col < vertexCount; col++) {
+				if (adjacencyMatrix[row][col] == 1) {
+					components.union(row, col);
+				}
+			}
 		}
 	}
 
-	static void displayVertex(int vertexIndex) {
+	/**
+	 * Adds an edge to the UnionFind if components are being tracked. Called
+	 * after the edge is in the matrix, so that a trackComponents() running at
+	 * the same time either sees the edge or is followed by this union.
+	 */
+	synchronized void unionTracked(int vertexIndexA, int vertexIndexB) {
+		if (components != null) {
+			components.union(vertexIndexA, vertexIndexB);
+		}
+	}
+
+	synchronized boolean areConnected(int vertexIndexA, int vertexIndexB) {
+		if (components == null) {
+			trackComponents();
+		}
+		return components.connected(vertexIndexA, vertexIndexB);
+	}
+
+	/**
+	 * @return the number of connected components among the vertices added so
+	 *         far
+	 */
+	synchronized int getComponentCount() {
+		if (components == null) {
+			trackComponents();
+		}
+		// Slots not yet filled by addVertex() count as single vertex sets
+		return components.getComponentCount() - (vertexList.length - vertexCount);
+	}
+
+	/**
+	 * Copies the adjacency matrix into a CSRGraph. Each row is scanned once, so
+	 * the adjacency lists come out sorted. The copy is marked directed unless
+	 * the matrix is symmetric.
+	 * 
+	 * @return
+	 */
+	CSRGraph toCSRGraph() {
+		int[] offsets = new int[vertexCount + 1];
+		boolean symmetric = true;
+		for (int row = 0; row < vertexCount; row++) {
+			int degree = 0;
+			for (int col = 0; col < vertexCount; col++) {
+				if (adjacencyMatrix[row][col] == 1) {
+					degree++;
+				}
+				if (adjacencyMatrix[row][col] != adjacencyMatrix[col][row]) {
+					symmetric = false;
+				}
+			}
+			offsets[row + 1] = offsets[row] + degree;
+		}
+		int[] targets = new int[offsets[vertexCount]];
+		for (int row = 0; row < vertexCount; row++) {
+			int arc = offsets[row];
+			for (int col = 0; col < vertexCount; col++) {
+				if (adjacencyMatrix[row][col] == 1) {
+					targets[arc++] = col;
+				}
+			}
+		}
+		return new CSRGraph(vertexCount, offsets, targets, !symmetric);
+	}
+
+	void displayVertex(int vertexIndex) {
 		System.out.println(vertexList[vertexIndex].label);
 	}
 
@@ -255,27 +352,54 @@ public class Graph {
 	 * 4. If it finds such a vertex, it visits that vertex and pushes it onto
 	 * the stack.
 	 * 
+	 * Which vertices have been visited is remembered in a BitSet owned by the
+	 * search, not in the vertices themselves. The graph is only read, so any
+	 * number of searches can run over the same graph at the same time.
+	 * 
+	 */
+	void performDFS() {
+		System.out.print("Visits : ");
+		traverseDFS(0, vertex -> {
+			System.out.print(vertexList[vertex].label);
+			return true;
+		});
+	}
+
+	/**
+	 * The depth-first search itself. Every vertex visited is handed to the
+	 * visitor as a plain int rather than printed, so the search can be used
+	 * from other code. The visitor returns false to stop the search early.
+	 * 
+	 * @param start
+	 * @param visitor
+	 * @return false if the visitor stopped the search
 	 */
-	static void performDFS() {
+	boolean traverseDFS(int start, IntPredicate visitor) {
+		BitSet visited = new BitSet(vertexCount);
 		Stack stack = new Stack(getVertexCount());
-		stack.push(0);// Pushed A into Stack
-		vertexList[0].wasVisited = true;
-		System.out.print("Visits : " + vertexList[0].label);
+		stack.push(start);
+		visited.set(start);
+		if (!visitor.test(start)) {
+			return false;
+		}
 		while (stack.isNotEmpty()) {
-			int adjVertex = getAdjacentUnvisitedVertex(stack.peek());
+			int adjVertex = getAdjacentUnvisitedVertex(stack.peek(), visited);
 			if (adjVertex == -1) {
 				stack.pop();
 			} else {
 				stack.push(adjVertex);
-				vertexList[adjVertex].wasVisited = true;
-				System.out.print(vertexList[adjVertex].label);
+				visited.set(adjVertex);
+				if (!visitor.test(adjVertex)) {
+					return false;
+				}
 			}
 		}
+		return true;
 	}
 
-	static int getAdjacentUnvisitedVertex(int currentVertex) {
+	int getAdjacentUnvisitedVertex(int currentVertex, BitSet visited) {
 		for (int col = 0; col < vertexCount; col++) {
-			if (adjacencyMatrix[currentVertex][col] == 1 && !vertexList[col].wasVisited) {
+			if (adjacencyMatrix[currentVertex][col] == 1 && !visited.get(col)) {
 				return col;
 			}
 		}
@@ -291,22 +415,50 @@ public class Graph {
 	 * given vertex. It uses a queue instead of a stack and features nested
 	 * loops instead of a single loop.
 	 * 
+	 * For large graphs, ParallelBFS runs the search over a CSRGraph on all
+	 * cores and returns the distance and parent of every vertex.
+	 * MultiSourceBFS runs up to 64 searches from different sources in one
+	 * sweep, for the hop distances between many pairs of vertices.
+	 * 
 	 * 
 	 */
-	static void performBFS() {
+	void performBFS() {
+		System.out.print("Visits : ");
+		traverseBFS(0, vertex -> {
+			System.out.print(vertexList[vertex].label);
+			return true;
+		});
+	}
+
+	/**
+	 * The breadth-first search itself, handing every vertex visited to the
+	 * visitor. The visitor returns false to stop the search early.
+	 * 
+	 * @param start
+	 * @param visitor
+	 * @return false if the visitor stopped the search
+	 */
+	boolean traverseBFS(int start, IntPredicate visitor) {
+		BitSet visited = new BitSet(vertexCount);
 		Queue queue = new Queue(getVertexCount());
-		queue.insert(0);// Pushed A into Queue
-		vertexList[0].wasVisited = true;
-		System.out.print("Visits : " + vertexList[0].label);
+		queue.insert(start);
+		visited.set(start);
+		if (!visitor.test(start)) {
+			return false;
+		}
 		int currentVertex = queue.remove();
-		while (currentVertex != -1) {
-			int adjVertex = getAdjacentUnvisitedVertex(currentVertex);
+		while (true) {
+			int adjVertex = getAdjacentUnvisitedVertex(currentVertex, visited);
 			if (adjVertex != -1) {
 				queue.insert(adjVertex);
-				vertexList[adjVertex].wasVisited = true;
-				System.out.print(vertexList[adjVertex].label);
-			} else {
+				visited.set(adjVertex);
+				if (!visitor.test(adjVertex)) {
+					return false;
+				}
+			} else if (queue.isNotEmpty()) {
 				currentVertex = queue.remove();
+			} else {
+				return true;
 			}
 		}
 	}
@@ -317,24 +469,17 @@ public class Graph {
 	 * and recording the edges youve traveled to make the search, you
 	 * automatically create a minimum spanning tree.
 	 * 
+	 * A search from vertex 0 only spans the component of vertex 0, so the
+	 * tree is built by SpanningForest, which restarts the search in every
+	 * component and returns one tree per component.
+	 * 
 	 */
-	static void performMST() {
-		Stack stack = new Stack(getVertexCount());
-		stack.push(0);// Pushed A into Stack
-		vertexList[0].wasVisited = true;
+	void performMST() {
+		SpanningForest forest = SpanningForest.of(toCSRGraph());
 		System.out.print("Minimum Spanning Tree : ");
-		while (stack.isNotEmpty()) {
-			int currentVertex = stack.peek();
-			int adjVertex = getAdjacentUnvisitedVertex(currentVertex);
-			if (adjVertex == -1) {
-				stack.pop();
-			} else {
-				stack.push(adjVertex);
-				vertexList[adjVertex].wasVisited = true;
-				// Minimum Spanning Tree
-				System.out.print(vertexList[currentVertex].label);
-				System.out.print(vertexList[adjVertex].label + "	");
-			}
+		for (int edge = 0; edge < forest.getEdgeCount(); edge++) {
+			System.out.print(vertexList[forest.edgeFrom[edge]].label);
+			System.out.print(vertexList[forest.edgeTo[edge]].label + "	");
 		}
 	}
 
@@ -345,12 +490,13 @@ public class Graph {
 	 * the adjacency matrix. When you use an algorithm to generate a topological
 	 * sort, the approach you take and the details of the code determine which
 	 * of various valid sortings are generated. Modeling job schedules with
-	 * graphs is called critical path analysis.
+	 * graphs is called critical path analysis; TopologicalScheduler finds the
+	 * jobs that can run in parallel and runs them on an executor.
 	 * 
-	 * Step 1: Find a vertex that has no successors.
+	 * Step 1: Find a vertex that has no predecessors.
 	 * 
-	 * Step 2 : Delete this vertex from the graph, and insert its label at the
-	 * beginning of a list.
+	 * Step 2 : Remove this vertex from the graph, and add its label at the end
+	 * of a list.
 	 * 
 	 * Steps 1 and 2 are repeated until all the vertices are gone. At this
 	 * point, the list shows the vertices arranged in topological order. The
@@ -363,64 +509,34 @@ public class Graph {
 	 * with no cycles. Such a graph is called a directed acyclic graph, often
 	 * abbreviated DAG.
 	 * 
-	 * The work is done in the while loop, which continues until the number of
-	 * vertices is reduced to 0. Here are the steps involved:
-	 * 
-	 * 1. Call noSuccessors() to find any vertex with no successors.
-	 * 
-	 * 2. If such a vertex is found, put the vertex label at the end of
-	 * sortedArray[] and delete the vertex from graph.
-	 * 
-	 * 3. If an appropriate vertex isnt found, the graph must have a cycle.
+	 * Searching the matrix for such a vertex and physically deleting it costs
+	 * O(N*N) per vertex. Instead, the matrix is copied into a CSRGraph and
+	 * TopologicalSort counts the predecessors of every vertex once; removing a
+	 * vertex only decrements the counts of its successors. The graph itself is
+	 * left untouched and the whole sort is O(N + E) on top of the copy.
 	 * 
+	 * If no vertex without predecessors can be found before all are gone, the
+	 * graph must have a cycle, and the vertices of one such cycle are printed.
 	 * 
 	 */
-	static void performTopoSort() {
-		char[] sortArray = new char[vertexCount];
-		while (vertexCount > 0) {
-			int currentVertex = noSuccessors();
-			if (currentVertex == -1) {
-				System.out.println("Current Vertex has cycles. Program Aborted..");
-				return;
-			} else {
-				sortArray[vertexCount - 1] = vertexList[currentVertex].label;
-				deleteVertex(currentVertex);
+	void performTopoSort() {
+		TopologicalSort topologicalSort = new TopologicalSort(toCSRGraph());
+		int[] sortArray = topologicalSort.sort();
+		if (sortArray == null) {
+			System.out.print("Current Vertex has cycles. Program Aborted.. Cycle : ");
+			int[] cycle = topologicalSort.findCycle();
+			for (int index = 0; index < cycle.length; index++) {
+				System.out.print(vertexList[cycle[index]].label);
 			}
+			System.out.println();
+			return;
 		}
 		System.out.println("The Topological Sorted Order is : ");
 		for (int index = 0; index < sortArray.length; index++) {
-			System.out.print(sortArray[index]);
+			System.out.print(vertexList[sortArray[index]].label);
 		}
 	}
 
-	/**
-	 * The noSuccessors() method uses the adjacency matrix to find a vertex with
-	 * no successors. In the outer for loop, it goes down the rows, looking at
-	 * each vertex. For each vertex, it scans across the columns in the inner
-	 * for loop, looking for a 1. If it finds one, it knows that that vertex has
-	 * a successor, because theres an edge from that vertex to another one.
-	 * When it finds a 1, it bails out of the inner loop so that the next vertex
-	 * can be investigated.
-	 * 
-	 * @return
-	 */
-	static int noSuccessors() {
-		boolean hasSuccessor;
-		for (int row = 0; row < vertexCount; row++) {
-			hasSuccessor = false;
-			for (int col = 0; col < vertexCount; col++) {
-				if (adjacencyMatrix[row][col] == 1) {
-					hasSuccessor = true;
-					break;
-				}
-			}
-			if (!hasSuccessor) {
-				return row;
-			}
-		}
-		return -1;
-	}
-
 	/**
 	 * Deleting a vertex is straightforward except for a few details. The vertex
 	 * is removed from the vertexList[] array, and the vertices above it are
@@ -429,9 +545,12 @@ public class Graph {
 	 * columns above and to the right are moved down and to the left to fill the
 	 * vacancies.
 	 * 
+	 * For graphs that keep changing, DynamicGraph adds vertices in O(1) and
+	 * deletes them in O(degree) instead.
+	 * 
 	 * @param vertexToDelete
 	 */
-	static void deleteVertex(int vertexToDelete) {
+	void deleteVertex(int vertexToDelete) {
 		if (vertexToDelete != vertexCount - 1) {
 			for (int index = vertexToDelete; index < vertexCount - 1; index++) {
 				vertexList[index] = vertexList[index + 1];
@@ -466,12 +585,10 @@ public class Graph {
  *
  */
 class Vertex {
-	char label;
-	boolean wasVisited;
+	final char label;
 
 	Vertex(char label) {
 		this.label = label;
-		this.wasVisited = false;
 	}
 }
 
@@ -487,10 +604,9 @@ class Stack {
 
 	protected void push(int number) {
 		if (pointer == stackSize - 1) {
-			System.out.println("Stack Overflow. Can't Push.");
-		} else {
-			array[++pointer] = number;
+			throw new IllegalStateException("Stack Overflow. Can't Push.");
 		}
+		array[++pointer] = number;
 	}
 
 	protected int pop() {
@@ -547,4 +663,8 @@ class Queue {
 		numberOfItems--;
 		return array[front++];
 	}
+
+	boolean isNotEmpty() {
+		return numberOfItems > 0;
+	}
 }
@@ -0,0 +1,366 @@
+package datastructures.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.IntPredicate;
+
+/**
+ * Building a large graph from an edge list, or edge by edge, takes a long
+ * time every time a program starts. A CSRGraph is nothing but a few primitive
+ * arrays, so it can be written to disk once exactly as it is laid out in
+ * memory and mapped back in later. Mapping a file costs no reading and no
+ * parsing at all: the operating system pages the arrays in as the searches
+ * touch them, and a second program (or the next start) finds them in the page
+ * cache already.
+ *
+ * The file format, all numbers little-endian :
+ *
+ * Header, 32 bytes : magic "CSRG", format version, flags (1 = directed, 2 =
+ * has vertex labels), vertex count N, arc count E as a long, 8 bytes reserved
+ *
+ * Vertex labels : N longs, only if flag 2 is set
+ *
+ * Offsets : N + 1 ints
+ *
+ * Targets : E ints
+ *
+ * Every section starts at a multiple of its element size, so the sections are
+ * read as IntBuffer and LongBuffer views without any copying. A single
+ * mapped buffer can not exceed 2 GB, so larger sections are mapped in pieces
+ * of 1 GB.
+ */
+public class MappedCSRGraph {
+	static final int MAGIC = 'C' | 'S' << 8 | 'R' << 16 | 'G' << 24;
+	static final int VERSION = 1;
+	static final int FLAG_DIRECTED = 1;
+	static final int FLAG_LABELS = 2;
+	static final int HEADER_SIZE = 32;
+	static final int PIECE_SHIFT = 30; // 1 GB per mapped piece
+	static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	final int vertexCount;
+	final long arcCount;
+	final boolean directed;
+	final LongBuffer[] labels;
+	final IntBuffer[] offsets;
+	final IntBuffer[] targets;
+
+	MappedCSRGraph(int vertexCount, long arcCount, boolean directed, LongBuffer[] labels, IntBuffer[] offsets,
+			IntBuffer[] targets) {
+		this.vertexCount = vertexCount;
+		this.arcCount = arcCount;
+		this.directed = directed;
+		this.labels = labels;
+		this.offsets = offsets;
+		this.targets = targets;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		CSRGraph graph = ParallelBFS.randomGraph(vertexCount, 16, 42);
+		File file = File.createTempFile("graph", ".csr");
+		file.deleteOnExit();
+		long begin = System.nanoTime();
+		write(graph, file.getPath());
+		System.out.println("Wrote " + file.length() / (1024 * 1024) + " MB in " + (System.nanoTime() - begin) / 1000000
+				+ " ms");
+		begin = System.nanoTime();
+		MappedCSRGraph mapped = open(file.getPath());
+		System.out.println("Opened " + mapped.getVertexCount() + " vertices, " + mapped.getArcCount() + " arcs in "
+				+ (System.nanoTime() - begin) / 1000000 + " ms");
+		begin = System.nanoTime();
+		int[] visits = mapped.performBFS(0);
+		System.out.println("BFS over the mapped file reached " + visits.length + " vertices in "
+				+ (System.nanoTime() - begin) / 1000000 + " ms, same as in memory : "
+				+ (visits.length == graph.performBFS(0).length));
+	}
+
+	/**
+	 * Writes the graph in the format described above, replacing the file if
+	 * it exists.
+	 *
+	 * @param graph
+	 * @param fileName
+	 * @throws IOException
+	 */
+	public static void write(CSRGraph graph, String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+			file.setLength(0);
+			FileChannel channel = file.getChannel();
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			int flags = (graph.directed ? FLAG_DIRECTED : 0) | (graph.vertexLabels != null ? FLAG_LABELS : 0);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(graph.vertexCount);
+			buffer.putLong(graph.targets.length).putLong(0L);
+			if (graph.vertexLabels != null) {
+				for (int vertex = 0; vertex < graph.vertexCount; vertex++) {
+					flushIfFull(channel, buffer, 8);
+					buffer.putLong(graph.vertexLabels[vertex]);
+				}
+			}
+			for (int vertex = 0; vertex <= graph.vertexCount; vertex++) {
+				flushIfFull(channel, buffer, 4);
+				buffer.putInt(graph.offsets[vertex]);
+			}
+			for (int arc = 0; arc < graph.targets.length; arc++) {
+				flushIfFull(channel, buffer, 4);
+				buffer.putInt(graph.targets[arc]);
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	static void flushIfFull(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+		if (buffer.remaining() < needed) {
+			flush(channel, buffer);
+		}
+	}
+
+	static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Maps a file written by write(). Only the header is read; the arrays are
+	 * paged in on first use. The mapping stays valid after this method has
+	 * closed the file.
+	 *
+	 * @param fileName
+	 * @return
+	 * @throws IOException
+	 *             if the file is not a graph file of a supported version, or
+	 *             is shorter than its header says
+	 */
+	public static MappedCSRGraph open(String fileName) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+			FileChannel channel = file.getChannel();
+			long length = channel.size();
+			if (length < HEADER_SIZE) {
+				throw new IOException("Not a graph file, too short : " + fileName);
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException("Not a graph file, bad magic number : " + fileName);
+			}
+			int version = header.getInt(4);
+			if (version != VERSION) {
+				throw new IOException("Unsupported graph file version " + version + " : " + fileName);
+			}
+			int flags = header.getInt(8);
+			int vertexCount = header.getInt(12);
+			long arcCount = header.getLong(16);
+			if (vertexCount < 0 || arcCount < 0 || arcCount > Integer.MAX_VALUE) {
+				throw new IOException("Corrupt graph file header : " + fileName);
+			}
+			boolean hasLabels = (flags & FLAG_LABELS) != 0;
+			long expected = HEADER_SIZE + (hasLabels ? 8L * vertexCount : 0) + 4L * (vertexCount + 1) + 4L * arcCount;
+			if (length < expected) {
+				throw new IOException("Graph file is truncated, " + length + " of " + expected + " bytes : " + fileName);
+			}
+			long position = HEADER_SIZE;
+			LongBuffer[] labels = null;
+			if (hasLabels) {
+				labels = mapLongs(channel, position, vertexCount);
+				position += 8L * vertexCount;
+			}
+			IntBuffer[] offsets = mapInts(channel, position, vertexCount + 1L);
+			position += 4L * (vertexCount + 1);
+			IntBuffer[] targets = mapInts(channel, position, arcCount);
+			return new MappedCSRGraph(vertexCount, arcCount, (flags & FLAG_DIRECTED) != 0, labels, offsets, targets);
+		}
+	}
+
+	static IntBuffer[] mapInts(FileChannel channel, long position, long count) throws IOException {
+		int perPiece = 1 << (PIECE_SHIFT - 2);
+		IntBuffer[] pieces = new IntBuffer[(int) ((count + perPiece - 1) / perPiece)];
+		for (int piece = 0; piece < pieces.length; piece++) {
+			long size = Math.min(perPiece, count - (long) piece * perPiece);
+			pieces[piece] = channel.map(FileChannel.MapMode.READ_ONLY, position + 4L * piece * perPiece, 4 * size)
+					.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		}
+		return pieces;
+	}
+
+	static LongBuffer[] mapLongs(FileChannel channel, long position, long count) throws IOException {
+		int perPiece = 1 << (PIECE_SHIFT - 3);
+		LongBuffer[] pieces = new LongBuffer[(int) ((count + perPiece - 1) / perPiece)];
+		for (int piece = 0; piece < pieces.length; piece++) {
+			long size = Math.min(perPiece, count - (long) piece * perPiece);
+			pieces[piece] = channel.map(FileChannel.MapMode.READ_ONLY, position + 8L * piece * perPiece, 8 * size)
+					.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		}
+		return pieces;
+	}
+
+	int offset(int vertex) {
+		return offsets[vertex >>> (PIECE_SHIFT - 2)].get(vertex & ((1 << (PIECE_SHIFT - 2)) - 1));
+	}
+
+	int target(int arc) {
+		return targets[arc >>> (PIECE_SHIFT - 2)].get(arc & ((1 << (PIECE_SHIFT - 2)) - 1));
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public long getArcCount() {
+		return arcCount;
+	}
+
+	public boolean isDirected() {
+		return directed;
+	}
+
+	public long getVertexLabel(int vertex) {
+		CSRGraph.checkVertex(vertex, vertexCount);
+		if (labels == null) {
+			return vertex;
+		}
+		return labels[vertex >>> (PIECE_SHIFT - 3)].get(vertex & ((1 << (PIECE_SHIFT - 3)) - 1));
+	}
+
+	public int degree(int vertex) {
+		return offset(vertex + 1) - offset(vertex);
+	}
+
+	public int neighbor(int vertex, int index) {
+		return target(offset(vertex) + index);
+	}
+
+	/**
+	 * Breadth first search straight over the mapped arrays, as
+	 * CSRGraph.traverseBFS().
+	 */
+	public boolean traverseBFS(int start, IntPredicate visitor) {
+		CSRGraph.checkVertex(start, vertexCount);
+		boolean[] visited = new boolean[vertexCount];
+		int[] queue = new int[vertexCount];
+		int head = 0;
+		int tail = 0;
+		visited[start] = true;
+		queue[tail++] = start;
+		if (!visitor.test(start)) {
+			return false;
+		}
+		while (head < tail) {
+			int currentVertex = queue[head++];
+			int end = offset(currentVertex + 1);
+			for (int arc = offset(currentVertex); arc < end; arc++) {
+				int adjVertex = target(arc);
+				if (!visited[adjVertex]) {
+					visited[adjVertex] = true;
+					queue[tail++] = adjVertex;
+					if (!visitor.test(adjVertex)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Depth first search straight over the mapped arrays, visiting vertices in
+	 * the same order as CSRGraph.traverseDFS().
+	 */
+	public boolean traverseDFS(int start, IntPredicate visitor) {
+		CSRGraph.checkVertex(start, vertexCount);
+		boolean[] visited = new boolean[vertexCount];
+		int[] cursor = new int[vertexCount];
+		int[] stack = new int[vertexCount];
+		int top = -1;
+		visited[start] = true;
+		stack[++top] = start;
+		cursor[start] = offset(start);
+		if (!visitor.test(start)) {
+			return false;
+		}
+		while (top >= 0) {
+			int currentVertex = stack[top];
+			int end = offset(currentVertex + 1);
+			int adjVertex = -1;
+			while (cursor[currentVertex] < end) {
+				int candidate = target(cursor[currentVertex]++);
+				if (!visited[candidate]) {
+					adjVertex = candidate;
+					break;
+				}
+			}
+			if (adjVertex == -1) {
+				top--;
+			} else {
+				visited[adjVertex] = true;
+				stack[++top] = adjVertex;
+				cursor[adjVertex] = offset(adjVertex);
+				if (!visitor.test(adjVertex)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public int[] performBFS(int start) {
+		final int[] order = new int[vertexCount];
+		final int[] visitCount = new int[1];
+		traverseBFS(start, vertex -> {
+			order[visitCount[0]++] = vertex;
+			return true;
+		});
+		return CSRGraph.trim(order, visitCount[0]);
+	}
+
+	public int[] performDFS(int start) {
+		final int[] order = new int[vertexCount];
+		final int[] visitCount = new int[1];
+		traverseDFS(start, vertex -> {
+			order[visitCount[0]++] = vertex;
+			return true;
+		});
+		return CSRGraph.trim(order, visitCount[0]);
+	}
+
+	/**
+	 * Copies the mapped arrays onto the heap, for the algorithms that need a
+	 * CSRGraph.
+	 *
+	 * @return
+	 */
+	public CSRGraph toCSRGraph() {
+		int[] heapOffsets = new int[vertexCount + 1];
+		for (int vertex = 0; vertex <= vertexCount; vertex++) {
+			heapOffsets[vertex] = offset(vertex);
+		}
+		int[] heapTargets = new int[(int) arcCount];
+		int position = 0;
+		for (IntBuffer piece : targets) {
+			IntBuffer view = piece.duplicate();
+			int length = view.remaining();
+			view.get(heapTargets, position, length);
+			position += length;
+		}
+		long[] heapLabels = null;
+		if (labels != null) {
+			heapLabels = new long[vertexCount];
+			position = 0;
+			for (LongBuffer piece : labels) {
+				LongBuffer view = piece.duplicate();
+				int length = view.remaining();
+				view.get(heapLabels, position, length);
+				position += length;
+			}
+		}
+		return new CSRGraph(vertexCount, heapOffsets, heapTargets, directed, heapLabels);
+	}
+}
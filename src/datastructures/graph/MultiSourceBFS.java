@@ -0,0 +1,140 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Runs up to 64 breadth first searches at once (multi-source BFS, Then et
+ * al.). Instead of one visited flag per vertex there is one long per vertex,
+ * and bit i of it belongs to the search from the i-th source. The frontier of
+ * all 64 searches is one long per vertex as well: bit i of visit[v] says that
+ * search i reached v on the current level.
+ *
+ * Expanding a vertex then serves every search at the same time. For each
+ * neighbor n of a frontier vertex v, the searches that reach n for the first
+ * time are
+ *
+ * visit[v] & ~seen[n]
+ *
+ * one AND and one NOT for all 64 of them. The graph is walked once per level
+ * rather than once per level and source, and when the searches overlap, as
+ * they do on most real graphs, the walk is shared between them. The hop
+ * distances of every source to every vertex come out of a single sweep.
+ *
+ * More than 64 sources are split into batches of 64, and the batches run in
+ * parallel.
+ */
+public class MultiSourceBFS {
+	static final int BATCH_SIZE = 64;
+
+	final CSRGraph graph;
+
+	public MultiSourceBFS(CSRGraph graph) {
+		this.graph = graph;
+	}
+
+	public static void main(String[] args) {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int sourceCount = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+		CSRGraph graph = ParallelBFS.randomGraph(vertexCount, 8, 42);
+		int[] sources = new int[sourceCount];
+		for (int index = 0; index < sourceCount; index++) {
+			sources[index] = (int) ((long) index * vertexCount / sourceCount);
+		}
+		long begin = System.nanoTime();
+		for (int index = 0; index < sourceCount; index++) {
+			graph.performBFS(sources[index]);
+		}
+		long single = System.nanoTime() - begin;
+		MultiSourceBFS bfs = new MultiSourceBFS(graph);
+		begin = System.nanoTime();
+		int[][] distance = bfs.distances(sources);
+		long batched = System.nanoTime() - begin;
+		System.out.println(sourceCount + " searches over " + vertexCount + " vertices : one by one " + single / 1000000
+				+ " ms, 64 at a time " + batched / 1000000 + " ms. Distance from " + sources[0] + " to "
+				+ sources[1] + " is " + distance[0][sources[1]]);
+	}
+
+	/**
+	 * @param sources
+	 * @return distance[i][v], the number of edges on a shortest path from
+	 *         sources[i] to v, or -1 if v can not be reached
+	 */
+	public int[][] distances(final int[] sources) {
+		final int[][] distance = new int[sources.length][];
+		int batchCount = (sources.length + BATCH_SIZE - 1) / BATCH_SIZE;
+		IntStream.range(0, batchCount).parallel().forEach(batch -> {
+			int from = batch * BATCH_SIZE;
+			int count = Math.min(BATCH_SIZE, sources.length - from);
+			int[][] batchDistance = searchBatch(sources, from, count);
+			System.arraycopy(batchDistance, 0, distance, from, count);
+		});
+		return distance;
+	}
+
+	/**
+	 * @return the hop distance between every pair of vertices, distance[u][v]
+	 */
+	public int[][] allPairs() {
+		int[] sources = new int[graph.vertexCount];
+		for (int vertex = 0; vertex < sources.length; vertex++) {
+			sources[vertex] = vertex;
+		}
+		return distances(sources);
+	}
+
+	/**
+	 * One sweep for up to 64 sources, sources[from] to sources[from + count - 1].
+	 */
+	int[][] searchBatch(int[] sources, int from, int count) {
+		int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		int[][] distance = new int[count][vertexCount];
+		long[] seen = new long[vertexCount];
+		long[] visit = new long[vertexCount];
+		long[] visitNext = new long[vertexCount];
+		for (int index = 0; index < count; index++) {
+			int source = sources[from + index];
+			CSRGraph.checkVertex(source, vertexCount);
+			Arrays.fill(distance[index], -1);
+			distance[index][source] = 0;
+			seen[source] |= 1L << index;
+			visit[source] |= 1L << index;
+		}
+		boolean frontierEmpty = false;
+		for (int level = 1; !frontierEmpty; level++) {
+			for (int vertex = 0; vertex < vertexCount; vertex++) {
+				long searches = visit[vertex];
+				if (searches == 0) {
+					continue;
+				}
+				for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+					int neighbor = targets[arc];
+					long discovered = searches & ~seen[neighbor];
+					if (discovered != 0) {
+						visitNext[neighbor] |= discovered;
+					}
+				}
+			}
+			frontierEmpty = true;
+			for (int vertex = 0; vertex < vertexCount; vertex++) {
+				long discovered = visitNext[vertex];
+				if (discovered == 0) {
+					continue;
+				}
+				frontierEmpty = false;
+				seen[vertex] |= discovered;
+				while (discovered != 0) {
+					distance[Long.numberOfTrailingZeros(discovered)][vertex] = level;
+					discovered &= discovered - 1;
+				}
+			}
+			long[] swap = visit;
+			visit = visitNext;
+			visitNext = swap;
+			Arrays.fill(visitNext, 0L);
+		}
+		return distance;
+	}
+}
@@ -0,0 +1,186 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * PageRank scores a vertex by how likely a random surfer is to stand on it.
+ * The surfer follows a random outgoing arc with probability d (the damping
+ * factor, usually 0.85) and jumps to a random vertex otherwise. A vertex
+ * without outgoing arcs (a dangling vertex) would trap the surfer, so from
+ * there the surfer always jumps, spreading the rank of dangling vertices over
+ * all vertices evenly.
+ *
+ * The ranks are found by power iteration. Starting from 1/N everywhere, every
+ * round computes
+ *
+ * rank'[v] = (1 - d) / N + d * (dangling / N + sum of rank[u] / out(u) over
+ * all predecessors u of v)
+ *
+ * until the ranks change by less than the tolerance in total (L1 norm).
+ *
+ * The sum is pulled over the predecessors of v, from the transposed graph,
+ * rather than pushed along the arcs of every u. Pulling means every worker
+ * writes only the ranks of its own vertices, so the vertices are split
+ * between the cores with no atomics or locks; pushing would need an atomic
+ * add for every arc. rank[u] / out(u) is computed once per round into its
+ * own array so the inner loop is a plain sum over primitive doubles.
+ */
+public class PageRank {
+	static final double DAMPING = 0.85;
+	static final double TOLERANCE = 1e-6;
+	static final int MAX_ITERATIONS = 100;
+	static final int GRAIN = 1024;
+
+	final CSRGraph graph;
+	final CSRGraph predecessors;
+	final ForkJoinPool pool;
+
+	public PageRank(CSRGraph graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+	public PageRank(CSRGraph graph, ForkJoinPool pool) {
+		this.graph = graph;
+		this.predecessors = graph.transpose();
+		this.pool = pool;
+	}
+
+	public static void main(String[] args) {
+		// A links to B and C, B to C, C back to A, and D to C; E has no links
+		int[] from = { 0, 0, 1, 2, 3 };
+		int[] to = { 1, 2, 2, 0, 2 };
+		CSRGraph graph = CSRGraph.fromEdgeList(5, from, to, from.length, true);
+		Result result = new PageRank(graph).compute();
+		System.out.println("PageRank after " + result.getIterationCount() + " iterations ("
+				+ (result.isConverged() ? "converged" : "not converged") + ") :");
+		for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+			System.out.printf("%c %.4f%n", CSRGraph.label(vertex), result.getRank()[vertex]);
+		}
+		long[] micros = result.getIterationNanos().clone();
+		for (int iteration = 0; iteration < micros.length; iteration++) {
+			micros[iteration] /= 1000;
+		}
+		System.out.println("Time per iteration (us) : " + Arrays.toString(micros));
+		System.out.println("In-degree : " + Arrays.toString(DegreeCentrality.inDegree(graph)));
+		System.out.println("Out-degree : " + Arrays.toString(DegreeCentrality.outDegree(graph)));
+	}
+
+	public static class Result {
+		final double[] rank;
+		final long[] iterationNanos;
+		final double[] residual;
+		final int iterationCount;
+		final boolean converged;
+
+		Result(double[] rank, long[] iterationNanos, double[] residual, int iterationCount, boolean converged) {
+			this.rank = rank;
+			this.iterationNanos = iterationNanos;
+			this.residual = residual;
+			this.iterationCount = iterationCount;
+			this.converged = converged;
+		}
+
+		/**
+		 * @return the rank of every vertex; the ranks add up to 1
+		 */
+		public double[] getRank() {
+			return rank;
+		}
+
+		/**
+		 * @return the wall clock time of every iteration in nanoseconds
+		 */
+		public long[] getIterationNanos() {
+			return iterationNanos;
+		}
+
+		/**
+		 * @return the total change of the ranks in every iteration
+		 */
+		public double[] getResidual() {
+			return residual;
+		}
+
+		public int getIterationCount() {
+			return iterationCount;
+		}
+
+		public boolean isConverged() {
+			return converged;
+		}
+	}
+
+	public Result compute() {
+		return compute(DAMPING, TOLERANCE, MAX_ITERATIONS);
+	}
+
+	/**
+	 * @param damping
+	 *            the probability of following an arc, between 0 and 1
+	 * @param tolerance
+	 *            stop once the ranks change by less than this in total
+	 * @param maxIterations
+	 *            stop after this many iterations even if not converged
+	 * @return
+	 */
+	public Result compute(final double damping, double tolerance, int maxIterations) {
+		if (damping < 0 || damping > 1) {
+			throw new IllegalArgumentException("Damping factor must be between 0 and 1 : " + damping);
+		}
+		final int vertexCount = graph.vertexCount;
+		final int[] offsets = graph.offsets;
+		final int[] inOffsets = predecessors.offsets;
+		final int[] sources = predecessors.targets;
+		final double[] contribution = new double[vertexCount];
+		double[] rank = new double[vertexCount];
+		double[] nextRank = new double[vertexCount];
+		Arrays.fill(rank, 1.0 / vertexCount);
+		long[] iterationNanos = new long[maxIterations];
+		double[] residual = new double[maxIterations];
+		int iteration = 0;
+		boolean converged = false;
+		while (iteration < maxIterations && !converged) {
+			long begin = System.nanoTime();
+			final double[] current = rank;
+			final double[] next = nextRank;
+			final DoubleAdder dangling = new DoubleAdder();
+			RangeTask.forEach(pool, 0, vertexCount, GRAIN, (from, to) -> {
+				double danglingRank = 0;
+				for (int vertex = from; vertex < to; vertex++) {
+					int outDegree = offsets[vertex + 1] - offsets[vertex];
+					if (outDegree == 0) {
+						danglingRank += current[vertex];
+						contribution[vertex] = 0;
+					} else {
+						contribution[vertex] = current[vertex] / outDegree;
+					}
+				}
+				dangling.add(danglingRank);
+			});
+			final double base = (1 - damping + damping * dangling.sum()) / vertexCount;
+			final DoubleAdder change = new DoubleAdder();
+			RangeTask.forEach(pool, 0, vertexCount, GRAIN, (from, to) -> {
+				double rangeChange = 0;
+				for (int vertex = from; vertex < to; vertex++) {
+					double sum = 0;
+					for (int arc = inOffsets[vertex]; arc < inOffsets[vertex + 1]; arc++) {
+						sum += contribution[sources[arc]];
+					}
+					next[vertex] = base + damping * sum;
+					rangeChange += Math.abs(next[vertex] - current[vertex]);
+				}
+				change.add(rangeChange);
+			});
+			rank = next;
+			nextRank = current;
+			residual[iteration] = change.sum();
+			converged = residual[iteration] < tolerance;
+			iterationNanos[iteration] = System.nanoTime() - begin;
+			iteration++;
+		}
+		return new Result(rank, Arrays.copyOf(iterationNanos, iteration), Arrays.copyOf(residual, iteration),
+				iteration, converged);
+	}
+}
@@ -0,0 +1,294 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A level synchronous breadth first search that runs on all cores. Like the
+ * plain BFS it moves outward from the source one level at a time, but all the
+ * vertices of the current level (the frontier) are expanded in parallel, and
+ * the level is finished before the next one starts.
+ *
+ * There are two ways of finding the next level:
+ *
+ * 1. Top-down : every frontier vertex looks at its neighbors and claims those
+ * that are still unvisited. The work is the number of edges leaving the
+ * frontier, which is small while the frontier is small.
+ *
+ * 2. Bottom-up : every unvisited vertex looks at its predecessors and stops at
+ * the first one that is in the frontier. On low diameter graphs the middle
+ * levels contain most of the graph, and then nearly every unvisited vertex
+ * finds a parent after checking just a few predecessors, which is far less
+ * work than expanding every edge of a huge frontier.
+ *
+ * The search starts top-down and switches to bottom-up once the edges leaving
+ * the frontier exceed 1/ALPHA of the edges still unexplored, and switches back
+ * when the frontier shrinks below 1/BETA of the vertices (direction optimizing
+ * BFS, Beamer et al.). Top-down keeps the frontier as an array of vertices and
+ * claims vertices with a compare-and-set on the visited bitset; bottom-up
+ * keeps the frontier as a bitset and needs no atomics at all, because each
+ * worker only writes the words of its own range of vertices.
+ *
+ * The result holds the hop distance from the source and the parent in the
+ * search tree of every vertex, with -1 for unreachable vertices. Any valid
+ * parent may be chosen when several are possible.
+ */
+public class ParallelBFS {
+	static final int ALPHA = 14;
+	static final int BETA = 24;
+	static final int GRAIN = 1024;
+
+	final CSRGraph graph;
+	final CSRGraph predecessors;
+	final ForkJoinPool pool;
+
+	public ParallelBFS(CSRGraph graph) {
+		this(graph, ForkJoinPool.commonPool());
+	}
+
+	public ParallelBFS(CSRGraph graph, ForkJoinPool pool) {
+		this.graph = graph;
+		this.predecessors = graph.transpose();
+		this.pool = pool;
+	}
+
+	public static void main(String[] args) {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int degree = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		CSRGraph graph = randomGraph(vertexCount, degree, 42);
+		System.out.println("Graph with " + vertexCount + " vertices and " + graph.getArcCount() + " arcs");
+		ParallelBFS bfs = new ParallelBFS(graph);
+		for (int round = 0; round < 5; round++) {
+			long begin = System.nanoTime();
+			int[] order = graph.performBFS(0);
+			long sequential = System.nanoTime() - begin;
+			begin = System.nanoTime();
+			Result result = bfs.search(0);
+			long parallel = System.nanoTime() - begin;
+			System.out.println("Sequential BFS " + sequential / 1000000 + " ms, parallel BFS " + parallel / 1000000
+					+ " ms, reached " + order.length + "/" + result.getReachedCount() + " vertices in "
+					+ result.getLevelCount() + " levels");
+		}
+	}
+
+	static CSRGraph randomGraph(int vertexCount, int degree, long seed) {
+		Random random = new Random(seed);
+		int edgeCount = vertexCount * degree / 2;
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			from[edge] = random.nextInt(vertexCount);
+			to[edge] = random.nextInt(vertexCount);
+		}
+		return CSRGraph.fromEdgeList(vertexCount, from, to, edgeCount, false);
+	}
+
+	public static class Result {
+		final int[] distance;
+		final int[] parent;
+		int reachedCount;
+		int levelCount;
+
+		Result(int vertexCount) {
+			distance = new int[vertexCount];
+			parent = new int[vertexCount];
+			Arrays.fill(distance, -1);
+			Arrays.fill(parent, -1);
+		}
+
+		public int[] getDistance() {
+			return distance;
+		}
+
+		public int[] getParent() {
+			return parent;
+		}
+
+		public int getReachedCount() {
+			return reachedCount;
+		}
+
+		public int getLevelCount() {
+			return levelCount;
+		}
+	}
+
+	public Result search(int source) {
+		CSRGraph.checkVertex(source, graph.vertexCount);
+		final int vertexCount = graph.vertexCount;
+		final Result result = new Result(vertexCount);
+		final int[] distance = result.distance;
+		final int[] parent = result.parent;
+		final AtomicLongArray visited = new AtomicLongArray((vertexCount + 63) >>> 6);
+		int[] queue = new int[vertexCount];
+		int[] nextQueue = new int[vertexCount];
+		long[] frontierBits = null;
+		long[] nextBits = null;
+
+		visited.set(source >>> 6, 1L << source);
+		distance[source] = 0;
+		parent[source] = source;
+		queue[0] = source;
+		int frontierSize = 1;
+		long frontierEdges = graph.degree(source);
+		long unexploredEdges = graph.targets.length;
+		int reached = 1;
+		int level = 0;
+		boolean bottomUp = false;
+
+		while (frontierSize > 0) {
+			if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+				if (frontierBits == null) {
+					frontierBits = new long[(vertexCount + 63) >>> 6];
+					nextBits = new long[frontierBits.length];
+				}
+				Arrays.fill(frontierBits, 0L);
+				for (int index = 0; index < frontierSize; index++) {
+					frontierBits[queue[index] >>> 6] |= 1L << queue[index];
+				}
+				bottomUp = true;
+			} else if (bottomUp && frontierSize < vertexCount / BETA) {
+				frontierSize = toQueue(frontierBits, queue);
+				bottomUp = false;
+			}
+
+			int nextLevel = level + 1;
+			long nextEdges;
+			if (bottomUp) {
+				Arrays.fill(nextBits, 0L);
+				long[] counts = bottomUpStep(frontierBits, nextBits, visited, distance, parent, nextLevel);
+				frontierSize = (int) counts[0];
+				nextEdges = counts[1];
+				long[] swap = frontierBits;
+				frontierBits = nextBits;
+				nextBits = swap;
+			} else {
+				long[] counts = topDownStep(queue, frontierSize, nextQueue, visited, distance, parent, nextLevel);
+				frontierSize = (int) counts[0];
+				nextEdges = counts[1];
+				int[] swap = queue;
+				queue = nextQueue;
+				nextQueue = swap;
+			}
+			unexploredEdges -= frontierEdges;
+			frontierEdges = nextEdges;
+			reached += frontierSize;
+			if (frontierSize > 0) {
+				level = nextLevel;
+			}
+		}
+		result.reachedCount = reached;
+		result.levelCount = level + 1;
+		return result;
+	}
+
+	/**
+	 * Expands the frontier queue in parallel. Each worker gathers the vertices
+	 * it claims in a buffer of its own and copies them into nextQueue in one
+	 * go, reserving the space with a single atomic add.
+	 *
+	 * @return {next frontier size, edges leaving the next frontier}
+	 */
+	long[] topDownStep(final int[] queue, int frontierSize, final int[] nextQueue, final AtomicLongArray visited,
+			final int[] distance, final int[] parent, final int nextLevel) {
+		final int[] offsets = graph.offsets;
+		final int[] targets = graph.targets;
+		final AtomicInteger tail = new AtomicInteger();
+		final AtomicLong edges = new AtomicLong();
+		RangeTask.forEach(pool, 0, frontierSize, GRAIN / 16, (from, to) -> {
+			int[] buffer = new int[64];
+			int count = 0;
+			long edgeCount = 0;
+			for (int index = from; index < to; index++) {
+				int vertex = queue[index];
+				for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+					int adjVertex = targets[arc];
+					if (claim(visited, adjVertex)) {
+						distance[adjVertex] = nextLevel;
+						parent[adjVertex] = vertex;
+						if (count == buffer.length) {
+							buffer = Arrays.copyOf(buffer, 2 * count);
+						}
+						buffer[count++] = adjVertex;
+						edgeCount += offsets[adjVertex + 1] - offsets[adjVertex];
+					}
+				}
+			}
+			if (count > 0) {
+				System.arraycopy(buffer, 0, nextQueue, tail.getAndAdd(count), count);
+				edges.addAndGet(edgeCount);
+			}
+		});
+		return new long[] { tail.get(), edges.get() };
+	}
+
+	/**
+	 * Lets every unvisited vertex search its predecessors for a member of the
+	 * frontier. Ranges are split on word boundaries, so the words of nextBits
+	 * and visited written by a worker belong to that worker alone.
+	 *
+	 * @return {next frontier size, edges leaving the next frontier}
+	 */
+	long[] bottomUpStep(final long[] frontierBits, final long[] nextBits, final AtomicLongArray visited,
+			final int[] distance, final int[] parent, final int nextLevel) {
+		final int[] offsets = predecessors.offsets;
+		final int[] sources = predecessors.targets;
+		final int[] outOffsets = graph.offsets;
+		final AtomicInteger size = new AtomicInteger();
+		final AtomicLong edges = new AtomicLong();
+		RangeTask.forEach(pool, 0, graph.vertexCount, GRAIN, (from, to) -> {
+			int count = 0;
+			long edgeCount = 0;
+			for (int vertex = from; vertex < to; vertex++) {
+				if ((visited.get(vertex >>> 6) & (1L << vertex)) != 0) {
+					continue;
+				}
+				for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+					int predecessor = sources[arc];
+					if ((frontierBits[predecessor >>> 6] & (1L << predecessor)) != 0) {
+						distance[vertex] = nextLevel;
+						parent[vertex] = predecessor;
+						nextBits[vertex >>> 6] |= 1L << vertex;
+						visited.set(vertex >>> 6, visited.get(vertex >>> 6) | (1L << vertex));
+						count++;
+						edgeCount += outOffsets[vertex + 1] - outOffsets[vertex];
+						break;
+					}
+				}
+			}
+			size.addAndGet(count);
+			edges.addAndGet(edgeCount);
+		});
+		return new long[] { size.get(), edges.get() };
+	}
+
+	static boolean claim(AtomicLongArray visited, int vertex) {
+		int word = vertex >>> 6;
+		long bit = 1L << vertex;
+		while (true) {
+			long current = visited.get(word);
+			if ((current & bit) != 0) {
+				return false;
+			}
+			if (visited.compareAndSet(word, current, current | bit)) {
+				return true;
+			}
+		}
+	}
+
+	static int toQueue(long[] bits, int[] queue) {
+		int size = 0;
+		for (int word = 0; word < bits.length; word++) {
+			long value = bits[word];
+			while (value != 0) {
+				queue[size++] = (word << 6) + Long.numberOfTrailingZeros(value);
+				value &= value - 1;
+			}
+		}
+		return size;
+	}
+}
@@ -0,0 +1,47 @@
+package datastructures.graph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits the index range [from, to) in halves until a piece holds no more than
+ * grain indexes, and hands each piece to the body on a ForkJoin worker. Split
+ * points are always multiples of 64, so two pieces never share a word of a
+ * long[] bitset and the body may update the words of its own piece without
+ * synchronization.
+ */
+final class RangeTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	interface Body {
+		void run(int from, int to);
+	}
+
+	final Body body;
+	final int from;
+	final int to;
+	final int grain;
+
+	RangeTask(Body body, int from, int to, int grain) {
+		this.body = body;
+		this.from = from;
+		this.to = to;
+		this.grain = grain;
+	}
+
+	static void forEach(ForkJoinPool pool, int from, int to, int grain, Body body) {
+		if (from < to) {
+			pool.invoke(new RangeTask(body, from, to, grain));
+		}
+	}
+
+	@Override
+	protected void compute() {
+		int middle = from + (((to - from) >>> 1) & ~63);
+		if (to - from <= grain || middle == from) {
+			body.run(from, to);
+		} else {
+			invokeAll(new RangeTask(body, from, middle, grain), new RangeTask(body, middle, to, grain));
+		}
+	}
+}
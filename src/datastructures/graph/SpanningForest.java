@@ -0,0 +1,185 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A depth first search from one vertex only spans the component of that
+ * vertex. Restarting the search from every vertex that is still unvisited
+ * gives one tree per component, together a spanning forest. A graph with N
+ * vertices and C components has a spanning forest of exactly N - C edges.
+ *
+ * The forest is returned as primitive arrays: parent[] holds the vertex each
+ * vertex was reached from (-1 for the root of a tree), and edgeFrom[] and
+ * edgeTo[] list the tree edges in the order the search traveled them.
+ *
+ * The search keeps its own int[] stack of size N along with a cursor into the
+ * adjacency list of every vertex on it. Since a vertex is pushed at most once
+ * the stack can never overflow, and no recursion is involved.
+ */
+public class SpanningForest {
+	final int[] parent;
+	final int[] edgeFrom;
+	final int[] edgeTo;
+	final int treeCount;
+
+	SpanningForest(int[] parent, int[] edgeFrom, int[] edgeTo, int treeCount) {
+		this.parent = parent;
+		this.edgeFrom = edgeFrom;
+		this.edgeTo = edgeTo;
+		this.treeCount = treeCount;
+	}
+
+	public static void main(String[] args) {
+		// AB BC AC in one component, DE in another and a lone F
+		int[] from = { 0, 1, 0, 3 };
+		int[] to = { 1, 2, 2, 4 };
+		CSRGraph graph = CSRGraph.fromEdgeList(6, from, to, from.length, false);
+		SpanningForest forest = of(graph);
+		System.out.print("Spanning forest of " + forest.getTreeCount() + " trees : ");
+		for (int edge = 0; edge < forest.getEdgeCount(); edge++) {
+			System.out.print(CSRGraph.label(forest.edgeFrom[edge]) + "" + CSRGraph.label(forest.edgeTo[edge]) + "	");
+		}
+		System.out.println("\nParents : " + Arrays.toString(forest.getParent()));
+		SpanningForest parallelForest = parallel(graph, ConnectedComponents.of(graph));
+		System.out.println("Parents (parallel) : " + Arrays.toString(parallelForest.getParent()));
+	}
+
+	/**
+	 * @return the parent of every vertex in its tree, -1 for roots
+	 */
+	public int[] getParent() {
+		return parent;
+	}
+
+	public int[] getEdgeFrom() {
+		return edgeFrom;
+	}
+
+	public int[] getEdgeTo() {
+		return edgeTo;
+	}
+
+	public int getEdgeCount() {
+		return edgeFrom.length;
+	}
+
+	public int getTreeCount() {
+		return treeCount;
+	}
+
+	/**
+	 * Builds the forest with one depth first search per tree, starting each
+	 * tree at the lowest numbered vertex not yet reached.
+	 *
+	 * @param graph
+	 * @return
+	 */
+	public static SpanningForest of(CSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		int[] parent = new int[vertexCount];
+		Arrays.fill(parent, -2); // -2 : not reached yet
+		int[] cursor = new int[vertexCount];
+		int[] stack = new int[vertexCount];
+		int[] edgeFrom = new int[vertexCount];
+		int[] edgeTo = new int[vertexCount];
+		int edgeCount = 0;
+		int treeCount = 0;
+		for (int root = 0; root < vertexCount; root++) {
+			if (parent[root] == -2) {
+				parent[root] = -1;
+				edgeCount = grow(graph, root, parent, cursor, stack, edgeFrom, edgeTo, edgeCount);
+				treeCount++;
+			}
+		}
+		return new SpanningForest(parent, CSRGraph.trim(edgeFrom, edgeCount), CSRGraph.trim(edgeTo, edgeCount),
+				treeCount);
+	}
+
+	/**
+	 * Builds the trees of the different components in parallel. The component
+	 * labels must come from ConnectedComponents.of() for the same graph, for
+	 * example because they were already needed elsewhere; computing them just
+	 * for this would cost as much as the sequential forest. Since a component
+	 * of S vertices has a tree of S - 1 edges, every component knows up front
+	 * where its edges go in the output arrays, and the searches share those
+	 * arrays (and parent[]) without ever writing the same slot. Only
+	 * undirected graphs are accepted, as a search along directed edges may not
+	 * reach its whole (weakly connected) component.
+	 *
+	 * @param graph
+	 * @param components
+	 * @return
+	 */
+	public static SpanningForest parallel(final CSRGraph graph, ConnectedComponents components) {
+		if (graph.directed) {
+			throw new IllegalArgumentException("A parallel spanning forest needs an undirected graph");
+		}
+		final int vertexCount = graph.vertexCount;
+		final int componentCount = components.componentCount;
+		final int[] component = components.component;
+		final int[] root = new int[componentCount];
+		Arrays.fill(root, -1);
+		final int[] edgeStart = new int[componentCount + 1];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (root[component[vertex]] == -1) {
+				root[component[vertex]] = vertex;
+			} else {
+				edgeStart[component[vertex] + 1]++;
+			}
+		}
+		for (int index = 0; index < componentCount; index++) {
+			edgeStart[index + 1] += edgeStart[index];
+		}
+		final int[] parent = new int[vertexCount];
+		Arrays.fill(parent, -2);
+		final int[] cursor = new int[vertexCount];
+		final int[] edgeFrom = new int[edgeStart[componentCount]];
+		final int[] edgeTo = new int[edgeStart[componentCount]];
+		IntStream.range(0, componentCount).parallel().forEach(index -> {
+			// The stack only ever holds vertices of this component
+			int[] stack = new int[edgeStart[index + 1] - edgeStart[index] + 1];
+			parent[root[index]] = -1;
+			grow(graph, root[index], parent, cursor, stack, edgeFrom, edgeTo, edgeStart[index]);
+		});
+		return new SpanningForest(parent, edgeFrom, edgeTo, componentCount);
+	}
+
+	/**
+	 * Depth first search from root over the vertices not reached yet,
+	 * appending the tree edges from position edgeCount on.
+	 *
+	 * @return the new edge count
+	 */
+	static int grow(CSRGraph graph, int root, int[] parent, int[] cursor, int[] stack, int[] edgeFrom, int[] edgeTo,
+			int edgeCount) {
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		int top = -1;
+		stack[++top] = root;
+		cursor[root] = offsets[root];
+		while (top >= 0) {
+			int currentVertex = stack[top];
+			int adjVertex = -1;
+			int end = offsets[currentVertex + 1];
+			while (cursor[currentVertex] < end) {
+				int candidate = targets[cursor[currentVertex]++];
+				if (parent[candidate] == -2) {
+					adjVertex = candidate;
+					break;
+				}
+			}
+			if (adjVertex == -1) {
+				top--;
+			} else {
+				parent[adjVertex] = currentVertex;
+				stack[++top] = adjVertex;
+				cursor[adjVertex] = offsets[adjVertex];
+				edgeFrom[edgeCount] = currentVertex;
+				edgeTo[edgeCount] = adjVertex;
+				edgeCount++;
+			}
+		}
+		return edgeCount;
+	}
+}
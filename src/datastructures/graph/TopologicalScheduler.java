@@ -0,0 +1,223 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Modeling job schedules with graphs is called critical path analysis. Each
+ * vertex is a job and a directed edge A -> B says that B can only start after
+ * A has finished. A topological order is one valid way of running the jobs
+ * one after the other; this class finds out which jobs may run at the same
+ * time and runs them that way.
+ *
+ * The level of a job is the length of the longest chain of jobs that must
+ * finish before it. Jobs without predecessors are at level 0, and every other
+ * job is one level above its highest predecessor. Two jobs on the same level
+ * never depend on each other, so each level is a group of jobs that can all
+ * run in parallel (an antichain). The number of levels is the length of the
+ * critical path: however many workers there are, the schedule can not take
+ * fewer steps than that. The widths of the levels tell how many workers can
+ * be kept busy.
+ *
+ * execute() does not wait for a whole level to finish before starting the
+ * next one. Every job keeps a count of its unfinished predecessors, and the
+ * moment a job finishes it decrements the counts of its successors and
+ * submits those that reach 0. The counts live in an AtomicIntegerArray, so
+ * jobs finishing at the same time on different threads never lose an update.
+ */
+public class TopologicalScheduler {
+	final CSRGraph graph;
+	final int[] level;
+	final int[] levelWidth;
+	final int[] criticalPath;
+
+	/**
+	 * Computes the levels. Throws IllegalStateException if the graph has a
+	 * cycle, naming the vertices of one.
+	 *
+	 * @param graph
+	 */
+	public TopologicalScheduler(CSRGraph graph) {
+		this.graph = graph;
+		TopologicalSort topologicalSort = new TopologicalSort(graph);
+		int[] order = topologicalSort.sort();
+		if (order == null) {
+			throw new IllegalStateException("Graph has a cycle : " + toString(topologicalSort.findCycle()));
+		}
+		int vertexCount = graph.vertexCount;
+		level = new int[vertexCount];
+		int[] longestParent = new int[vertexCount];
+		Arrays.fill(longestParent, -1);
+		int levelCount = 0;
+		int deepest = -1;
+		for (int index = 0; index < vertexCount; index++) {
+			int vertex = order[index];
+			for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+				int successor = graph.targets[arc];
+				if (level[vertex] + 1 > level[successor]) {
+					level[successor] = level[vertex] + 1;
+					longestParent[successor] = vertex;
+				}
+			}
+			if (level[vertex] + 1 > levelCount) {
+				levelCount = level[vertex] + 1;
+				deepest = vertex;
+			}
+		}
+		levelWidth = new int[levelCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			levelWidth[level[vertex]]++;
+		}
+		criticalPath = new int[levelCount];
+		for (int index = levelCount - 1, vertex = deepest; index >= 0; index--) {
+			criticalPath[index] = vertex;
+			vertex = longestParent[vertex];
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		Graph graph = Graph.initializeGraphForTopoSort();
+		TopologicalScheduler scheduler = new TopologicalScheduler(graph.toCSRGraph());
+		System.out.println("Critical path length : " + scheduler.getCriticalPathLength() + " ("
+				+ scheduler.toString(scheduler.getCriticalPath()) + ")");
+		for (int index = 0; index < scheduler.getLevelCount(); index++) {
+			System.out.print("Level " + index + " width " + scheduler.getLevelWidth()[index] + " : ");
+			for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+				if (scheduler.getLevel()[vertex] == index) {
+					System.out.print(graph.vertexList[vertex].label);
+				}
+			}
+			System.out.println();
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			scheduler.execute(executor, vertex -> System.out.println(
+					"Running " + graph.vertexList[vertex].label + " on " + Thread.currentThread().getName()));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	String toString(int[] vertices) {
+		StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < vertices.length; index++) {
+			builder.append(index == 0 ? "" : " -> ").append(vertices[index]);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return the level of every vertex
+	 */
+	public int[] getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the number of vertices on each level
+	 */
+	public int[] getLevelWidth() {
+		return levelWidth;
+	}
+
+	public int getLevelCount() {
+		return levelWidth.length;
+	}
+
+	/**
+	 * @return the number of vertices on the longest dependency chain
+	 */
+	public int getCriticalPathLength() {
+		return criticalPath.length;
+	}
+
+	/**
+	 * @return the vertices of one longest dependency chain, in order
+	 */
+	public int[] getCriticalPath() {
+		return criticalPath;
+	}
+
+	/**
+	 * Runs task for every vertex on the executor, starting each vertex as soon
+	 * as all its predecessors have finished, and waits until all are done. If
+	 * a task throws, or the executor refuses a task, no further tasks are
+	 * started and the exception or error is rethrown here (a checked one
+	 * wrapped in a RuntimeException); tasks that were already running are not
+	 * interrupted.
+	 *
+	 * @param executor
+	 * @param task
+	 * @throws InterruptedException
+	 */
+	public void execute(final Executor executor, final IntConsumer task) throws InterruptedException {
+		final int vertexCount = graph.vertexCount;
+		final AtomicIntegerArray remaining = new AtomicIntegerArray(vertexCount);
+		for (int arc = 0; arc < graph.targets.length; arc++) {
+			remaining.incrementAndGet(graph.targets[arc]);
+		}
+		final CountDownLatch done = new CountDownLatch(vertexCount);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (level[vertex] == 0) {
+				submit(executor, task, vertex, remaining, done, failure);
+			}
+		}
+		done.await();
+		Throwable thrown = failure.get();
+		if (thrown instanceof RuntimeException) {
+			throw (RuntimeException) thrown;
+		} else if (thrown instanceof Error) {
+			throw (Error) thrown;
+		} else if (thrown != null) {
+			throw new RuntimeException(thrown);
+		}
+	}
+
+	void submit(final Executor executor, final IntConsumer task, final int vertex, final AtomicIntegerArray remaining,
+			final CountDownLatch done, final AtomicReference<Throwable> failure) {
+		try {
+			executor.execute(() -> {
+				try {
+					if (failure.get() == null) {
+						task.accept(vertex);
+						for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+							int successor = graph.targets[arc];
+							if (remaining.decrementAndGet(successor) == 0) {
+								submit(executor, task, successor, remaining, done, failure);
+							}
+						}
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				} finally {
+					countDown(done, failure);
+				}
+			});
+		} catch (Throwable e) {
+			// The executor refused the task, so it will never count down
+			failure.compareAndSet(null, e);
+			countDown(done, failure);
+		}
+	}
+
+	/**
+	 * Counts a vertex as done, or after a failure releases the whole graph
+	 * without running anything else.
+	 */
+	static void countDown(CountDownLatch done, AtomicReference<Throwable> failure) {
+		if (failure.get() == null) {
+			done.countDown();
+			return;
+		}
+		while (done.getCount() > 0) {
+			done.countDown();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package datastructures.graph;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Topological sorting by counting predecessors (Kahn's algorithm). The number
+ * of incoming edges (the in-degree) of every vertex is counted once up front.
+ * A vertex whose count is 0 has no predecessors left and is ready; it is put
+ * in a queue. Taking a vertex out of the queue is like deleting it from the
+ * graph: the count of each of its successors drops by one, and the successors
+ * that reach 0 join the queue. Nothing is ever deleted from the graph itself,
+ * so the same graph can be sorted again or searched at the same time, and
+ * every vertex and edge is handled once, O(N + E) in all.
+ *
+ * The sort is an iterator, so vertices can be consumed one at a time as soon
+ * as they are ready; a scheduler can start the first jobs before the rest of
+ * the order is known. When the iterator runs dry before every vertex was
+ * returned, the remaining vertices all wait on a cycle, and findCycle() names
+ * one.
+ */
+public class TopologicalSort implements PrimitiveIterator.OfInt {
+	final CSRGraph graph;
+	final int[] inDegree;
+	final int[] queue;
+	int front;
+	int rear;
+
+	public TopologicalSort(CSRGraph graph) {
+		this.graph = graph;
+		int vertexCount = graph.vertexCount;
+		inDegree = new int[vertexCount];
+		queue = new int[vertexCount];
+		for (int arc = 0; arc < graph.targets.length; arc++) {
+			inDegree[graph.targets[arc]]++;
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (inDegree[vertex] == 0) {
+				queue[rear++] = vertex;
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		// AD AE BE CF DG EG FH GH, plus HB which closes the cycle B E G H
+		int[] from = { 0, 0, 1, 2, 3, 4, 5, 6, 7 };
+		int[] to = { 3, 4, 4, 5, 6, 6, 7, 7, 1 };
+		for (int edgeCount = from.length - 1; edgeCount <= from.length; edgeCount++) {
+			TopologicalSort sort = new TopologicalSort(CSRGraph.fromEdgeList(8, from, to, edgeCount, true));
+			System.out.print("\nReady vertices : ");
+			while (sort.hasNext()) {
+				System.out.print(CSRGraph.label(sort.nextInt()));
+			}
+			if (!sort.isComplete()) {
+				System.out.print("\nCycle found : ");
+				CSRGraph.printLabels(sort.findCycle());
+			}
+		}
+		System.out.println();
+	}
+
+	/**
+	 * @return true if a vertex is ready to be taken
+	 */
+	@Override
+	public boolean hasNext() {
+		return front < rear;
+	}
+
+	/**
+	 * Takes the next ready vertex and releases the successors that were
+	 * waiting only for it.
+	 */
+	@Override
+	public int nextInt() {
+		if (front == rear) {
+			throw new NoSuchElementException();
+		}
+		int vertex = queue[front++];
+		int[] targets = graph.targets;
+		for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+			if (--inDegree[targets[arc]] == 0) {
+				queue[rear++] = targets[arc];
+			}
+		}
+		return vertex;
+	}
+
+	/**
+	 * @return true once every vertex has been returned
+	 */
+	public boolean isComplete() {
+		return front == graph.vertexCount;
+	}
+
+	/**
+	 * Runs the iteration to the end.
+	 *
+	 * @return the vertices in topological order, or null if the graph has a
+	 *         cycle
+	 */
+	public int[] sort() {
+		while (hasNext()) {
+			nextInt();
+		}
+		return isComplete() ? queue : null;
+	}
+
+	/**
+	 * Once the iteration is stuck, every vertex not yet returned still has a
+	 * predecessor that was not returned either. Walking from predecessor to
+	 * predecessor must therefore come back to a vertex already seen, and the
+	 * walk between the two visits is a cycle.
+	 *
+	 * @return the vertices of one cycle in edge order, or an empty array if
+	 *         the graph is acyclic
+	 */
+	public int[] findCycle() {
+		sort();
+		if (isComplete()) {
+			return new int[0];
+		}
+		CSRGraph predecessors = graph.transpose();
+		int vertexCount = graph.vertexCount;
+		int[] step = new int[vertexCount];
+		int[] walk = new int[vertexCount + 1];
+		int vertex = 0;
+		while (inDegree[vertex] == 0) {
+			vertex++;
+		}
+		int length = 0;
+		while (step[vertex] == 0) {
+			walk[length++] = vertex;
+			step[vertex] = length;
+			for (int arc = predecessors.offsets[vertex];; arc++) {
+				int predecessor = predecessors.targets[arc];
+				if (inDegree[predecessor] > 0) {
+					vertex = predecessor;
+					break;
+				}
+			}
+		}
+		// The walk went backwards along the edges, so reverse the loop part
+		int first = step[vertex] - 1;
+		int[] cycle = new int[length - first];
+		for (int index = 0; index < cycle.length; index++) {
+			cycle[index] = walk[length - 1 - index];
+		}
+		return cycle;
+	}
+}
@@ -0,0 +1,188 @@
+package datastructures.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the triangles of an undirected graph, three vertices that are all
+ * joined to each other, and how many triangles every vertex is part of.
+ *
+ * Every edge is first pointed from its end point of lower degree to the one
+ * of higher degree (ties broken by vertex number). That orders the vertices,
+ * and each triangle u < v < w is found exactly once: at u, as a vertex w that
+ * appears in the lists of both u and v. Since the adjacency lists of a
+ * CSRGraph are sorted, the common vertices of two lists are found by merging
+ * them, in the sum of their lengths. Pointing edges towards the higher degree
+ * keeps the lists short, because a hub only keeps the edges to the few
+ * vertices of even higher degree; the whole count is O(E sqrt(E)), against
+ * O(E * maximum degree) without the orientation.
+ *
+ * The oriented graph holds every edge once, so the memory is O(N + E). The
+ * vertices are split between the cores; the count of a triangle goes to all
+ * three of its vertices, which may belong to different workers, so those
+ * counts are atomic.
+ *
+ * From the counts follow the clustering coefficients. The local coefficient
+ * of v is the share of pairs of neighbors of v that are joined themselves,
+ * t(v) / (d(v) (d(v) - 1) / 2). The global coefficient is the share of paths
+ * of two edges that are closed into a triangle, 3 T / (sum of d(v) (d(v) - 1) /
+ * 2).
+ */
+public class TriangleCount {
+	static final int GRAIN = 256;
+
+	final long[] vertexTriangles;
+	final long triangleCount;
+	final int[] degree;
+
+	TriangleCount(long[] vertexTriangles, long triangleCount, int[] degree) {
+		this.vertexTriangles = vertexTriangles;
+		this.triangleCount = triangleCount;
+		this.degree = degree;
+	}
+
+	public static void main(String[] args) {
+		// Triangles ABC and ACD share the edge AC, DE hangs off D
+		int[] from = { 0, 1, 0, 2, 0, 3 };
+		int[] to = { 1, 2, 2, 3, 3, 4 };
+		CSRGraph graph = CSRGraph.fromEdgeList(5, from, to, from.length, false);
+		TriangleCount count = of(graph);
+		System.out.println("Triangles : " + count.getTriangleCount());
+		System.out.println("Triangles per vertex : " + Arrays.toString(count.getVertexTriangles()));
+		System.out.println("Local clustering : " + Arrays.toString(count.getLocalClustering()));
+		System.out.println("Global clustering : " + count.getGlobalClustering());
+	}
+
+	public static TriangleCount of(CSRGraph graph) {
+		return of(graph, ForkJoinPool.commonPool());
+	}
+
+	public static TriangleCount of(CSRGraph graph, ForkJoinPool pool) {
+		if (graph.directed) {
+			throw new IllegalArgumentException("Triangle counting needs an undirected graph");
+		}
+		final int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		// Degrees without self loops, which belong to no triangle
+		final int[] degree = new int[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+				if (targets[arc] != vertex) {
+					degree[vertex]++;
+				}
+			}
+		}
+		// Keep each edge at its lower end only; the lists stay sorted
+		final int[] outOffsets = new int[vertexCount + 1];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+				if (before(targets[arc], vertex, degree)) {
+					outOffsets[targets[arc] + 1]++;
+				}
+			}
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			outOffsets[vertex + 1] += outOffsets[vertex];
+		}
+		final int[] outTargets = new int[outOffsets[vertexCount]];
+		int[] cursor = Arrays.copyOf(outOffsets, vertexCount);
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+				if (before(targets[arc], vertex, degree)) {
+					outTargets[cursor[targets[arc]]++] = vertex;
+				}
+			}
+		}
+
+		final AtomicLongArray counts = new AtomicLongArray(vertexCount);
+		final AtomicLong total = new AtomicLong();
+		RangeTask.forEach(pool, 0, vertexCount, GRAIN, (from, to) -> {
+			long rangeTotal = 0;
+			for (int vertexU = from; vertexU < to; vertexU++) {
+				long triangles = 0;
+				int endU = outOffsets[vertexU + 1];
+				for (int arc = outOffsets[vertexU]; arc < endU; arc++) {
+					int vertexV = outTargets[arc];
+					// Merge the lists of u and v
+					int indexU = outOffsets[vertexU];
+					int indexV = outOffsets[vertexV];
+					int endV = outOffsets[vertexV + 1];
+					long common = 0;
+					while (indexU < endU && indexV < endV) {
+						int vertexW = outTargets[indexU];
+						int other = outTargets[indexV];
+						if (vertexW < other) {
+							indexU++;
+						} else if (vertexW > other) {
+							indexV++;
+						} else {
+							counts.incrementAndGet(vertexW);
+							common++;
+							indexU++;
+							indexV++;
+						}
+					}
+					if (common > 0) {
+						counts.addAndGet(vertexV, common);
+						triangles += common;
+					}
+				}
+				if (triangles > 0) {
+					counts.addAndGet(vertexU, triangles);
+					rangeTotal += triangles;
+				}
+			}
+			total.addAndGet(rangeTotal);
+		});
+		long[] vertexTriangles = new long[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			vertexTriangles[vertex] = counts.get(vertex);
+		}
+		return new TriangleCount(vertexTriangles, total.get(), degree);
+	}
+
+	/**
+	 * @return true if vertexA comes before vertexB in the (degree, number)
+	 *         order
+	 */
+	static boolean before(int vertexA, int vertexB, int[] degree) {
+		return degree[vertexA] < degree[vertexB] || (degree[vertexA] == degree[vertexB] && vertexA < vertexB);
+	}
+
+	public long getTriangleCount() {
+		return triangleCount;
+	}
+
+	/**
+	 * @return the number of triangles every vertex is part of
+	 */
+	public long[] getVertexTriangles() {
+		return vertexTriangles;
+	}
+
+	/**
+	 * @return the local clustering coefficient of every vertex, 0 for vertices
+	 *         with fewer than two neighbors
+	 */
+	public double[] getLocalClustering() {
+		double[] clustering = new double[degree.length];
+		for (int vertex = 0; vertex < degree.length; vertex++) {
+			long pairs = (long) degree[vertex] * (degree[vertex] - 1) / 2;
+			if (pairs > 0) {
+				clustering[vertex] = (double) vertexTriangles[vertex] / pairs;
+			}
+		}
+		return clustering;
+	}
+
+	public double getGlobalClustering() {
+		long paths = 0;
+		for (int vertex = 0; vertex < degree.length; vertex++) {
+			paths += (long) degree[vertex] * (degree[vertex] - 1) / 2;
+		}
+		return paths == 0 ? 0 : 3.0 * triangleCount / paths;
+	}
+}
@@ -0,0 +1,88 @@
+package datastructures.graph;
+
+/**
+ * A union-find (disjoint set) structure keeps track of which vertices are
+ * connected while edges are still arriving. Every set is a tree stored in
+ * parent[], and the root of the tree names the set. Two vertices are connected
+ * exactly when they have the same root.
+ *
+ * Adding an edge joins the sets of its end points by hanging the smaller tree
+ * under the root of the larger one (union by size), which keeps the trees
+ * shallow. Looking up a root also points every vertex passed on the way
+ * directly at the root (path compression), so later lookups are faster still.
+ * Together the two tricks make each operation O(alpha(N)), where alpha is the
+ * inverse Ackermann function and is below 5 for any graph that fits in memory.
+ */
+public class UnionFind {
+	final int[] parent;
+	final int[] size;
+	int componentCount;
+
+	public UnionFind(int vertexCount) {
+		parent = new int[vertexCount];
+		size = new int[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			parent[vertex] = vertex;
+			size[vertex] = 1;
+		}
+		componentCount = vertexCount;
+	}
+
+	/**
+	 * Finds the root in one pass up the tree, then makes a second pass that
+	 * points every vertex on the path at the root. Both passes are plain loops,
+	 * so deep trees can not overflow the call stack.
+	 *
+	 * @param vertex
+	 * @return the root of the set holding vertex
+	 */
+	public int find(int vertex) {
+		int root = vertex;
+		while (parent[root] != root) {
+			root = parent[root];
+		}
+		while (parent[vertex] != root) {
+			int next = parent[vertex];
+			parent[vertex] = root;
+			vertex = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Joins the sets of the two vertices.
+	 *
+	 * @return false if they were already in the same set
+	 */
+	public boolean union(int vertexA, int vertexB) {
+		int rootA = find(vertexA);
+		int rootB = find(vertexB);
+		if (rootA == rootB) {
+			return false;
+		}
+		if (size[rootA] < size[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parent[rootB] = rootA;
+		size[rootA] += size[rootB];
+		componentCount--;
+		return true;
+	}
+
+	public boolean connected(int vertexA, int vertexB) {
+		return find(vertexA) == find(vertexB);
+	}
+
+	/**
+	 * @return the number of vertices in the set holding vertex
+	 */
+	public int componentSize(int vertex) {
+		return size[find(vertex)];
+	}
+
+	public int getComponentCount() {
+		return componentCount;
+	}
+}
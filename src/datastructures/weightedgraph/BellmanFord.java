@@ -0,0 +1,209 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths when weights may be negative. Dijkstra's algorithm takes the
+ * distance of a vertex as final when it leaves the heap, which is only true
+ * if no later arc can make a path shorter; a negative arc can.
+ *
+ * Bellman-Ford relaxes every arc again and again until no distance changes.
+ * The queue based variant (SPFA, shortest path faster algorithm) only
+ * relaxes the arcs of vertices whose distance went down since they were last
+ * looked at: such a vertex goes into a FIFO queue, unless it is in the queue
+ * already. The search ends as soon as the queue is empty, often after far
+ * fewer than the N - 1 rounds of plain Bellman-Ford, and never later.
+ *
+ * With a cycle of negative total weight there is no shortest path to the
+ * vertices on and behind the cycle, and the queue would never empty. Every
+ * vertex therefore counts the arcs on the path that gave its distance. A
+ * path of N or more arcs repeats a vertex, and the search then follows the
+ * parents to find the cycle. A cycle in the parents always has negative
+ * weight, so it is returned as the reason the search gave up.
+ */
+public class BellmanFord {
+	final WeightedCSRGraph graph;
+
+	public BellmanFord(WeightedCSRGraph graph) {
+		this.graph = graph;
+	}
+
+	public static void main(String[] args) {
+		int[] from = { 0, 0, 1, 2, 3, 3 };
+		int[] to = { 1, 2, 3, 1, 2, 4 };
+		long[] weight = { 4, 5, 3, -4, 2, 1 };
+		BellmanFord search = new BellmanFord(WeightedCSRGraph.fromEdgeList(5, from, to, weight, from.length, true));
+		Result result = search.search(0);
+		System.out.println("Distances from 0 : " + Arrays.toString(result.getTree().getDistances()) + " after "
+				+ result.getRelaxationCount() + " relaxations");
+		weight[4] = 0; // 1 -> 3 -> 2 -> 1 now weighs 3 + 0 - 4 = -1
+		search = new BellmanFord(WeightedCSRGraph.fromEdgeList(5, from, to, weight, from.length, true));
+		System.out.println("Negative cycle : " + Arrays.toString(search.search(0).getNegativeCycle()));
+	}
+
+	public static class Result {
+		final int source;
+		final long[] distance;
+		final int[] parent;
+		final int[] negativeCycle;
+		final long relaxationCount;
+
+		Result(int source, long[] distance, int[] parent, int[] negativeCycle, long relaxationCount) {
+			this.source = source;
+			this.distance = distance;
+			this.parent = parent;
+			this.negativeCycle = negativeCycle;
+			this.relaxationCount = relaxationCount;
+		}
+
+		/**
+		 * @return the shortest path tree, or null if a negative cycle was
+		 *         found or the search started from every vertex
+		 */
+		public ShortestPathTree getTree() {
+			if (negativeCycle != null || source < 0) {
+				return null;
+			}
+			return new ShortestPathTree(source, distance, parent);
+		}
+
+		/**
+		 * @return the distance of every vertex, or null if a negative cycle
+		 *         was found
+		 */
+		public long[] getDistances() {
+			return negativeCycle == null ? distance : null;
+		}
+
+		public boolean hasNegativeCycle() {
+			return negativeCycle != null;
+		}
+
+		/**
+		 * @return the vertices of a negative cycle in the direction of its
+		 *         arcs, the last one leading back to the first, or null
+		 */
+		public int[] getNegativeCycle() {
+			return negativeCycle;
+		}
+
+		/**
+		 * @return the number of times a distance went down, a measure of the
+		 *         work done
+		 */
+		public long getRelaxationCount() {
+			return relaxationCount;
+		}
+	}
+
+	/**
+	 * Shortest paths from the source. Only a negative cycle that can be
+	 * reached from the source is found.
+	 *
+	 * @param source
+	 * @return
+	 */
+	public Result search(int source) {
+		WeightedCSRGraph.checkVertex(source, graph.vertexCount);
+		long[] distance = new long[graph.vertexCount];
+		Arrays.fill(distance, ShortestPathTree.UNREACHABLE);
+		distance[source] = 0;
+		return run(source, distance);
+	}
+
+	/**
+	 * Shortest paths from an extra vertex with an arc of weight 0 to every
+	 * vertex, without building the bigger graph: every vertex simply starts
+	 * at distance 0. No distance is positive, and every negative cycle of the
+	 * graph can be reached. Johnson reweights the arcs with these distances.
+	 *
+	 * @return
+	 */
+	public Result searchFromAll() {
+		return run(-1, new long[graph.vertexCount]);
+	}
+
+	Result run(int source, long[] distance) {
+		int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		long[] weights = graph.weights;
+		int[] parent = new int[vertexCount];
+		Arrays.fill(parent, -1);
+		int[] arcCount = new int[vertexCount];
+		boolean[] queued = new boolean[vertexCount];
+		// A vertex is in the queue at most once, so N slots used in a circle
+		// are enough
+		int[] queue = new int[Math.max(1, vertexCount)];
+		int head = 0;
+		int size = 0;
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (distance[vertex] != ShortestPathTree.UNREACHABLE) {
+				queue[size++] = vertex;
+				queued[vertex] = true;
+			}
+		}
+		int[] walkMark = new int[vertexCount];
+		int walk = 0;
+		long relaxationCount = 0;
+		while (size > 0) {
+			int currentVertex = queue[head];
+			head = head + 1 == queue.length ? 0 : head + 1;
+			size--;
+			queued[currentVertex] = false;
+			long startToCurrentDistance = distance[currentVertex];
+			for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+				int fringeVertex = targets[arc];
+				long startToFringeDistance = ShortestPathTree.saturatedAdd(startToCurrentDistance, weights[arc]);
+				if (startToFringeDistance >= distance[fringeVertex]) {
+					continue;
+				}
+				distance[fringeVertex] = startToFringeDistance;
+				parent[fringeVertex] = currentVertex;
+				arcCount[fringeVertex] = arcCount[currentVertex] + 1;
+				relaxationCount++;
+				if (arcCount[fringeVertex] % vertexCount == 0) {
+					int[] cycle = findParentCycle(fringeVertex, parent, walkMark, ++walk);
+					if (cycle != null) {
+						return new Result(source, distance, parent, cycle, relaxationCount);
+					}
+				}
+				if (!queued[fringeVertex]) {
+					queued[fringeVertex] = true;
+					int tail = head + size < queue.length ? head + size : head + size - queue.length;
+					queue[tail] = fringeVertex;
+					size++;
+				}
+			}
+		}
+		return new Result(source, distance, parent, null, relaxationCount);
+	}
+
+	/**
+	 * Follows the parents from the vertex until they end or repeat a vertex.
+	 *
+	 * @return the cycle the parents run into, in the direction of the arcs, or
+	 *         null if they lead back to the start of the search
+	 */
+	static int[] findParentCycle(int vertex, int[] parent, int[] walkMark, int walk) {
+		while (vertex != -1 && walkMark[vertex] != walk) {
+			walkMark[vertex] = walk;
+			vertex = parent[vertex];
+		}
+		if (vertex == -1) {
+			return null;
+		}
+		int length = 1;
+		for (int member = parent[vertex]; member != vertex; member = parent[member]) {
+			length++;
+		}
+		// Parents point against the arcs, so fill the cycle from the back
+		int[] cycle = new int[length];
+		int member = vertex;
+		for (int index = length - 1; index >= 0; index--) {
+			cycle[index] = member;
+			member = parent[member];
+		}
+		return cycle;
+	}
+}
@@ -0,0 +1,307 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Dijkstra's algorithm settles one vertex at a time, always the closest one,
+ * so it can not use more than one core. Delta-stepping (Meyer and Sanders)
+ * settles many vertices at once by giving up a little of that order.
+ *
+ * Vertices with a tentative distance are kept in buckets of width delta:
+ * bucket i holds the vertices whose distance lies in [i * delta, (i + 1) *
+ * delta). The buckets are emptied in order. All vertices of the current
+ * bucket are expanded together, in parallel, and their light arcs (weight at
+ * most delta) may put vertices back into the same bucket, which is then
+ * expanded again until it stays empty. Only then are the heavy arcs (weight
+ * above delta) of all vertices removed from the bucket relaxed, once; they
+ * can only reach later buckets.
+ *
+ * A small delta is close to Dijkstra (little parallel work per bucket, few
+ * wasted relaxations); a large delta is close to Bellman-Ford (much parallel
+ * work, but vertices are relaxed again and again as their distance keeps
+ * improving). The maximum weight divided by the average degree is a good
+ * starting point, see defaultDelta().
+ *
+ * Parallel relaxations lower distances with a compare-and-set on an
+ * AtomicLongArray. The parents are filled in at the end, from the final
+ * distances, by a search along the arcs that are tight (distance of the tail
+ * plus weight equals distance of the head). At any moment all tentative
+ * distances lie less than maxWeight + delta above the current bucket, so
+ * maxWeight / delta + 2 buckets used in a cycle are enough.
+ */
+public class DeltaStepping {
+	static final int GRAIN = 256;
+	static final int MAX_BUCKETS = 1 << 24;
+
+	final WeightedCSRGraph graph;
+	final long delta;
+	final ForkJoinPool pool;
+	final int bucketCount;
+
+	public DeltaStepping(WeightedCSRGraph graph) {
+		this(graph, defaultDelta(graph), ForkJoinPool.commonPool());
+	}
+
+	public DeltaStepping(WeightedCSRGraph graph, long delta, ForkJoinPool pool) {
+		if (delta < 1) {
+			throw new IllegalArgumentException("Delta must be positive : " + delta);
+		}
+		long maxWeight = 0;
+		for (long weight : graph.weights) {
+			if (weight < 0) {
+				throw new IllegalArgumentException("Delta-stepping needs weights of 0 or more : " + weight);
+			}
+			maxWeight = Math.max(maxWeight, weight);
+		}
+		if (maxWeight / delta + 2 > MAX_BUCKETS) {
+			throw new IllegalArgumentException("Delta " + delta + " is too small for the maximum weight " + maxWeight);
+		}
+		this.graph = graph;
+		this.delta = delta;
+		this.pool = pool;
+		this.bucketCount = (int) (maxWeight / delta + 2);
+	}
+
+	public static void main(String[] args) {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		WeightedCSRGraph graph = MinimumSpanningTree.randomGraph(vertexCount, 8, 42);
+		long delta = defaultDelta(graph);
+		System.out.println("Random graph of " + vertexCount + " vertices and " + graph.getArcCount()
+				+ " arcs, default delta " + delta);
+		for (long factor : new long[] { 1, 4, 16 }) {
+			DeltaStepping search = new DeltaStepping(graph, delta * factor, ForkJoinPool.commonPool());
+			for (int round = 0; round < 3; round++) {
+				long begin = System.nanoTime();
+				ShortestPathTree sequential = graph.performDijkstra(0);
+				long dijkstraTime = System.nanoTime() - begin;
+				begin = System.nanoTime();
+				ShortestPathTree parallel = search.search(0);
+				long deltaTime = System.nanoTime() - begin;
+				System.out.println("delta " + delta * factor + " : Dijkstra " + dijkstraTime / 1000000
+						+ " ms, delta-stepping " + deltaTime / 1000000 + " ms, same distances : "
+						+ Arrays.equals(sequential.getDistances(), parallel.getDistances()));
+			}
+		}
+	}
+
+	/**
+	 * @return the maximum weight divided by the average degree, at least 1
+	 */
+	public static long defaultDelta(WeightedCSRGraph graph) {
+		long maxWeight = 0;
+		for (long weight : graph.weights) {
+			maxWeight = Math.max(maxWeight, weight);
+		}
+		long averageDegree = Math.max(1, graph.getArcCount() / Math.max(1, graph.vertexCount));
+		return Math.max(1, maxWeight / averageDegree);
+	}
+
+	/**
+	 * A growable list of ints. The lists of the parallel tasks are chained
+	 * together instead of copied when the tasks are joined.
+	 */
+	static class IntList {
+		int[] values = new int[16];
+		int size;
+		IntList next;
+
+		void add(int value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, 2 * size);
+			}
+			values[size++] = value;
+		}
+	}
+
+	/**
+	 * Relaxes the light or the heavy arcs of frontier[from, to) and returns
+	 * the vertices whose distance went down.
+	 */
+	class RelaxTask extends RecursiveTask<IntList> {
+		private static final long serialVersionUID = 1L;
+
+		final int[] frontier;
+		final int from;
+		final int to;
+		final boolean light;
+		final AtomicLongArray distance;
+
+		RelaxTask(int[] frontier, int from, int to, boolean light, AtomicLongArray distance) {
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.light = light;
+			this.distance = distance;
+		}
+
+		@Override
+		protected IntList compute() {
+			if (to - from > GRAIN) {
+				int middle = (from + to) >>> 1;
+				RelaxTask right = new RelaxTask(frontier, middle, to, light, distance);
+				right.fork();
+				IntList improved = new RelaxTask(frontier, from, middle, light, distance).compute();
+				IntList rightImproved = right.join();
+				IntList last = improved;
+				while (last.next != null) {
+					last = last.next;
+				}
+				last.next = rightImproved;
+				return improved;
+			}
+			IntList improved = new IntList();
+			int[] offsets = graph.offsets;
+			int[] targets = graph.targets;
+			long[] weights = graph.weights;
+			for (int index = from; index < to; index++) {
+				int currentVertex = frontier[index];
+				long startToCurrentDistance = distance.get(currentVertex);
+				for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+					if ((weights[arc] <= delta) != light) {
+						continue;
+					}
+					int fringeVertex = targets[arc];
+					long startToFringeDistance = ShortestPathTree.saturatedAdd(startToCurrentDistance, weights[arc]);
+					long known = distance.get(fringeVertex);
+					while (startToFringeDistance < known) {
+						if (distance.compareAndSet(fringeVertex, known, startToFringeDistance)) {
+							improved.add(fringeVertex);
+							break;
+						}
+						known = distance.get(fringeVertex);
+					}
+				}
+			}
+			return improved;
+		}
+	}
+
+	/**
+	 * @param source
+	 * @return the distance and parent of every vertex, as Dijkstra's algorithm
+	 *         would find them (any of several shortest paths may be chosen)
+	 */
+	public ShortestPathTree search(int source) {
+		int vertexCount = graph.vertexCount;
+		WeightedCSRGraph.checkVertex(source, vertexCount);
+		AtomicLongArray distance = new AtomicLongArray(vertexCount);
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			distance.set(vertex, ShortestPathTree.UNREACHABLE);
+		}
+		distance.set(source, 0);
+		// Buckets hold vertices lazily: a vertex whose distance went down is
+		// added to its new bucket and skipped in the old one. A bucket is
+		// null until something is added to it, so a small delta costs
+		// nothing for the many buckets that stay empty
+		IntList[] buckets = new IntList[bucketCount];
+		buckets[0] = new IntList();
+		buckets[0].add(source);
+		long pending = 1;
+		long[] expandedAt = new long[vertexCount];
+		Arrays.fill(expandedAt, -1);
+		long[] removedIn = new long[vertexCount];
+		Arrays.fill(removedIn, -1);
+		int[] frontier = new int[16];
+		int[] removed = new int[16];
+		for (long current = 0; pending > 0; current++) {
+			int slot = (int) (current % bucketCount);
+			int removedCount = 0;
+			while (buckets[slot] != null) {
+				IntList bucket = buckets[slot];
+				buckets[slot] = null;
+				pending -= bucket.size;
+				int frontierCount = 0;
+				for (int index = 0; index < bucket.size; index++) {
+					int vertex = bucket.values[index];
+					long vertexDistance = distance.get(vertex);
+					if (vertexDistance / delta != current || expandedAt[vertex] == vertexDistance) {
+						continue; // stale entry, or expanded with this distance already
+					}
+					expandedAt[vertex] = vertexDistance;
+					if (frontierCount == frontier.length) {
+						frontier = Arrays.copyOf(frontier, 2 * frontierCount);
+					}
+					frontier[frontierCount++] = vertex;
+					if (removedIn[vertex] != current) {
+						removedIn[vertex] = current;
+						if (removedCount == removed.length) {
+							removed = Arrays.copyOf(removed, 2 * removedCount);
+						}
+						removed[removedCount++] = vertex;
+					}
+				}
+				if (frontierCount > 0) {
+					pending += addToBuckets(relax(frontier, frontierCount, true, distance), buckets, distance);
+				}
+			}
+			if (removedCount > 0) {
+				pending += addToBuckets(relax(removed, removedCount, false, distance), buckets, distance);
+			}
+		}
+		long[] finalDistance = new long[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			finalDistance[vertex] = distance.get(vertex);
+		}
+		return new ShortestPathTree(source, finalDistance, parents(source, finalDistance));
+	}
+
+	IntList relax(int[] frontier, int count, boolean light, AtomicLongArray distance) {
+		return pool.invoke(new RelaxTask(frontier, 0, count, light, distance));
+	}
+
+	/**
+	 * @return the number of entries added
+	 */
+	int addToBuckets(IntList improved, IntList[] buckets, AtomicLongArray distance) {
+		int added = 0;
+		for (IntList list = improved; list != null; list = list.next) {
+			for (int index = 0; index < list.size; index++) {
+				int vertex = list.values[index];
+				int slot = (int) (distance.get(vertex) / delta % bucketCount);
+				if (buckets[slot] == null) {
+					buckets[slot] = new IntList();
+				}
+				buckets[slot].add(vertex);
+				added++;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Picks a parent for every reached vertex by a breadth first search from
+	 * the source along tight arcs only. Any tight arc would do as the parent
+	 * arc, but with arcs of weight 0 the tight arcs can form cycles, and the
+	 * search makes sure the parents lead back to the source.
+	 */
+	int[] parents(int source, long[] distance) {
+		int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		long[] weights = graph.weights;
+		int[] parent = new int[vertexCount];
+		Arrays.fill(parent, -1);
+		boolean[] visited = new boolean[vertexCount];
+		int[] queue = new int[vertexCount];
+		int head = 0;
+		int tail = 0;
+		visited[source] = true;
+		queue[tail++] = source;
+		while (head < tail) {
+			int currentVertex = queue[head++];
+			for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+				int fringeVertex = targets[arc];
+				if (!visited[fringeVertex]
+						&& ShortestPathTree.saturatedAdd(distance[currentVertex], weights[arc]) == distance[fringeVertex]) {
+					visited[fringeVertex] = true;
+					parent[fringeVertex] = currentVertex;
+					queue[tail++] = fringeVertex;
+				}
+			}
+		}
+		return parent;
+	}
+}
@@ -0,0 +1,263 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs shortest paths by the Floyd-Warshall algorithm. The distances are
+ * kept in one N x N table, row after row in a flat long[], which starts out
+ * with the weights of the arcs. Round k lets every path pass through vertex
+ * k:
+ *
+ * distance[i][j] = min(distance[i][j], distance[i][k] + distance[k][j])
+ *
+ * After N rounds the table holds the shortest distances, in O(N^3) time,
+ * negative weights included. A negative cycle shows up as a vertex with a
+ * negative distance to itself.
+ *
+ * The plain triple loop sweeps the whole table once per round, N^2 longs
+ * that do not fit in any cache, so it waits for memory all the time. The
+ * blocked version cuts the table into tiles of tileSize x tileSize and runs
+ * tileSize rounds at once on each tile, while the tile stays in the cache.
+ * The rounds of one block k of vertices go in three phases:
+ *
+ * 1. The tile (k, k) on the diagonal, which only depends on itself.
+ *
+ * 2. The other tiles in row k and in column k, which depend on themselves
+ * and on the diagonal tile. They are independent of each other and run in
+ * parallel.
+ *
+ * 3. All remaining tiles (i, j), which depend on tile (i, k) of column k and
+ * tile (k, j) of row k only, again in parallel.
+ *
+ * Next to the distances a next hop table is kept: next[i][j] is the vertex
+ * that follows i on a shortest path to j, -1 without a path. Following it
+ * from i gives the path, without storing any path. Along a cycle of weight 0
+ * every next hop could be as good as the last one and lead round in circles,
+ * so a third table counts the arcs of each path, and of two paths of equal
+ * distance the one with fewer arcs wins.
+ */
+public class FloydWarshall {
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	final int vertexCount;
+	final long[] distance;
+	final int[] next;
+	final int[] arcCount;
+
+	FloydWarshall(int vertexCount, long[] distance, int[] next, int[] arcCount) {
+		this.vertexCount = vertexCount;
+		this.distance = distance;
+		this.next = next;
+		this.arcCount = arcCount;
+	}
+
+	public static void main(String[] args) {
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		WeightedCSRGraph graph = MinimumSpanningTree.randomGraph(vertexCount, 8, 42);
+		System.out.println("Random graph of " + vertexCount + " vertices and " + graph.getArcCount() + " arcs");
+		for (int round = 0; round < 3; round++) {
+			long begin = System.nanoTime();
+			FloydWarshall naive = naive(graph);
+			long naiveTime = System.nanoTime() - begin;
+			begin = System.nanoTime();
+			FloydWarshall blocked = blocked(graph);
+			long blockedTime = System.nanoTime() - begin;
+			System.out.println("naive " + naiveTime / 1000000 + " ms, blocked " + blockedTime / 1000000
+					+ " ms, same distances : " + Arrays.equals(naive.distance, blocked.distance));
+		}
+	}
+
+	/**
+	 * The table before the first round: 0 on the diagonal, the lightest arc
+	 * between two vertices elsewhere, UNREACHABLE without an arc. A negative
+	 * loop is kept on the diagonal, it is a negative cycle.
+	 */
+	static FloydWarshall initialTable(WeightedCSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		if ((long) vertexCount * vertexCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many vertices for one table : " + vertexCount);
+		}
+		long[] distance = new long[vertexCount * vertexCount];
+		int[] next = new int[vertexCount * vertexCount];
+		int[] arcCount = new int[vertexCount * vertexCount];
+		Arrays.fill(distance, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(next, -1);
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			int row = vertex * vertexCount;
+			distance[row + vertex] = 0;
+			next[row + vertex] = vertex;
+			for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+				int target = graph.targets[arc];
+				if (graph.weights[arc] < distance[row + target]) {
+					distance[row + target] = graph.weights[arc];
+					next[row + target] = target;
+					arcCount[row + target] = 1;
+				}
+			}
+		}
+		return new FloydWarshall(vertexCount, distance, next, arcCount);
+	}
+
+	/**
+	 * The plain triple loop, for comparison.
+	 *
+	 * @param graph
+	 * @return
+	 */
+	public static FloydWarshall naive(WeightedCSRGraph graph) {
+		FloydWarshall table = initialTable(graph);
+		int vertexCount = table.vertexCount;
+		for (int via = 0; via < vertexCount; via++) {
+			table.relaxTile(via, via + 1, 0, vertexCount, 0, vertexCount);
+		}
+		return table;
+	}
+
+	public static FloydWarshall blocked(WeightedCSRGraph graph) {
+		return blocked(graph, DEFAULT_TILE_SIZE);
+	}
+
+	/**
+	 * @param graph
+	 * @param tileSize
+	 *            the width of a tile; three tiles of tileSize x tileSize
+	 *            longs should fit in the cache of one core
+	 * @return
+	 */
+	public static FloydWarshall blocked(WeightedCSRGraph graph, int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("Tile size must be positive : " + tileSize);
+		}
+		FloydWarshall table = initialTable(graph);
+		int vertexCount = table.vertexCount;
+		int tileCount = (vertexCount + tileSize - 1) / tileSize;
+		for (int block = 0; block < tileCount; block++) {
+			int viaFrom = block * tileSize;
+			int viaTo = Math.min(viaFrom + tileSize, vertexCount);
+			final int diagonal = block;
+			table.relaxTile(viaFrom, viaTo, viaFrom, viaTo, viaFrom, viaTo);
+			// Tile number t < tileCount is (block, t) in the row, the rest
+			// (t - tileCount, block) in the column
+			IntStream.range(0, 2 * tileCount).parallel().forEach(tile -> {
+				int other = tile < tileCount ? tile : tile - tileCount;
+				if (other == diagonal) {
+					return;
+				}
+				int otherFrom = other * tileSize;
+				int otherTo = Math.min(otherFrom + tileSize, vertexCount);
+				if (tile < tileCount) {
+					table.relaxTile(viaFrom, viaTo, viaFrom, viaTo, otherFrom, otherTo);
+				} else {
+					table.relaxTile(viaFrom, viaTo, otherFrom, otherTo, viaFrom, viaTo);
+				}
+			});
+			IntStream.range(0, tileCount * tileCount).parallel().forEach(tile -> {
+				int row = tile / tileCount;
+				int column = tile % tileCount;
+				if (row == diagonal || column == diagonal) {
+					return;
+				}
+				int rowFrom = row * tileSize;
+				int columnFrom = column * tileSize;
+				table.relaxTile(viaFrom, viaTo, rowFrom, Math.min(rowFrom + tileSize, vertexCount), columnFrom,
+						Math.min(columnFrom + tileSize, vertexCount));
+			});
+		}
+		return table;
+	}
+
+	/**
+	 * Runs the rounds viaFrom to viaTo - 1 on the rows rowFrom to rowTo - 1
+	 * and the columns columnFrom to columnTo - 1 of the table.
+	 */
+	void relaxTile(int viaFrom, int viaTo, int rowFrom, int rowTo, int columnFrom, int columnTo) {
+		for (int via = viaFrom; via < viaTo; via++) {
+			int viaRow = via * vertexCount;
+			for (int from = rowFrom; from < rowTo; from++) {
+				int fromRow = from * vertexCount;
+				long fromToVia = distance[fromRow + via];
+				if (fromToVia == ShortestPathTree.UNREACHABLE) {
+					continue;
+				}
+				int hop = next[fromRow + via];
+				int fromToViaArcs = arcCount[fromRow + via];
+				for (int to = columnFrom; to < columnTo; to++) {
+					long viaToTarget = distance[viaRow + to];
+					if (viaToTarget == ShortestPathTree.UNREACHABLE) {
+						continue;
+					}
+					long throughVia = ShortestPathTree.saturatedAdd(fromToVia, viaToTarget);
+					long known = distance[fromRow + to];
+					if (throughVia < known
+							|| throughVia == known && fromToViaArcs + arcCount[viaRow + to] < arcCount[fromRow + to]) {
+						distance[fromRow + to] = throughVia;
+						next[fromRow + to] = hop;
+						arcCount[fromRow + to] = fromToViaArcs + arcCount[viaRow + to];
+					}
+				}
+			}
+		}
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * @return the shortest distance, or ShortestPathTree.UNREACHABLE
+	 */
+	public long getDistance(int from, int to) {
+		WeightedCSRGraph.checkVertex(from, vertexCount);
+		WeightedCSRGraph.checkVertex(to, vertexCount);
+		return distance[from * vertexCount + to];
+	}
+
+	/**
+	 * @return the whole table, row after row
+	 */
+	public long[] getDistances() {
+		return distance;
+	}
+
+	/**
+	 * @return true if some vertex has a negative distance to itself; the
+	 *         distances are then not shortest distances any more
+	 */
+	public boolean hasNegativeCycle() {
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (distance[vertex * vertexCount + vertex] < 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param from
+	 * @param to
+	 * @return the vertices on a shortest path, both included, or null if there
+	 *         is no path
+	 * @throws IllegalStateException
+	 *             if the graph has a negative cycle
+	 */
+	public int[] getPath(int from, int to) {
+		WeightedCSRGraph.checkVertex(from, vertexCount);
+		WeightedCSRGraph.checkVertex(to, vertexCount);
+		if (hasNegativeCycle()) {
+			throw new IllegalStateException("No shortest paths with a negative cycle");
+		}
+		if (next[from * vertexCount + to] == -1) {
+			return null;
+		}
+		int length = 1;
+		for (int vertex = from; vertex != to; vertex = next[vertex * vertexCount + to]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int vertex = from, index = 0; index < length; vertex = next[vertex * vertexCount + to], index++) {
+			path[index] = vertex;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,12 @@
+package datastructures.weightedgraph;
+
+/**
+ * Estimates the distance from a vertex to the target of an A* search. The
+ * search returns a shortest path as long as the estimate never exceeds the
+ * real distance (the heuristic is admissible); the closer it comes, the fewer
+ * vertices the search has to settle. A heuristic that always returns 0 turns
+ * A* into Dijkstra's algorithm.
+ */
+public interface Heuristic {
+	long estimate(int vertex, int target);
+}
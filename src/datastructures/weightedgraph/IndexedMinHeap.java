@@ -0,0 +1,135 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+
+/**
+ * A d-ary min-heap of vertices 0 to N - 1 keyed by a long, for Dijkstra's and
+ * Prim's algorithms. Beside the heap array it keeps the position of every
+ * vertex in the heap, so the key of a vertex already in the heap can be
+ * lowered in place (decrease-key) instead of inserting the vertex a second
+ * time. The heap therefore never holds more than N entries and never holds a
+ * stale entry, and every operation is O(log N) with no objects and no boxing.
+ *
+ * Every node has d children instead of two. That makes the heap log2(d)
+ * times shallower, so decrease-key, by far the most frequent operation in
+ * both algorithms, moves a vertex up fewer levels. removeMin() compares d
+ * children per level instead, but they sit next to each other in the array
+ * and usually share a cache line. d = 4 is a good default.
+ */
+final class IndexedMinHeap {
+	static final int DEFAULT_ARITY = 4;
+
+	final int arity;
+	final int[] heap;
+	final int[] position; // -1 : not in the heap
+	final long[] key;
+	int size;
+
+	IndexedMinHeap(int vertexCount) {
+		this(vertexCount, DEFAULT_ARITY);
+	}
+
+	IndexedMinHeap(int vertexCount, int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("A heap needs at least 2 children per node : " + arity);
+		}
+		this.arity = arity;
+		heap = new int[vertexCount];
+		position = new int[vertexCount];
+		key = new long[vertexCount];
+		Arrays.fill(position, -1);
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean contains(int vertex) {
+		return position[vertex] != -1;
+	}
+
+	long keyOf(int vertex) {
+		return key[vertex];
+	}
+
+	long minKey() {
+		return key[heap[0]];
+	}
+
+	/**
+	 * Inserts the vertex, or lowers its key if it is in the heap already with
+	 * a higher one.
+	 *
+	 * @return false if the vertex was in the heap with a key no higher than
+	 *         newKey
+	 */
+	boolean insertOrDecrease(int vertex, long newKey) {
+		int index = position[vertex];
+		if (index == -1) {
+			index = size++;
+		} else if (newKey >= key[vertex]) {
+			return false;
+		}
+		key[vertex] = newKey;
+		siftUp(vertex, index);
+		return true;
+	}
+
+	/**
+	 * @return the vertex with the lowest key, which leaves the heap
+	 */
+	int removeMin() {
+		int min = heap[0];
+		position[min] = -1;
+		int last = heap[--size];
+		if (size > 0) {
+			siftDown(last, 0);
+		}
+		return min;
+	}
+
+	void siftUp(int vertex, int index) {
+		long vertexKey = key[vertex];
+		while (index > 0) {
+			int parentIndex = (index - 1) / arity;
+			int parent = heap[parentIndex];
+			if (key[parent] <= vertexKey) {
+				break;
+			}
+			heap[index] = parent;
+			position[parent] = index;
+			index = parentIndex;
+		}
+		heap[index] = vertex;
+		position[vertex] = index;
+	}
+
+	void siftDown(int vertex, int index) {
+		long vertexKey = key[vertex];
+		while (true) {
+			int firstChild = arity * index + 1;
+			if (firstChild >= size) {
+				break;
+			}
+			int child = firstChild;
+			int lastChild = Math.min(firstChild + arity, size);
+			for (int other = firstChild + 1; other < lastChild; other++) {
+				if (key[heap[other]] < key[heap[child]]) {
+					child = other;
+				}
+			}
+			if (vertexKey <= key[heap[child]]) {
+				break;
+			}
+			heap[index] = heap[child];
+			position[heap[child]] = index;
+			index = child;
+		}
+		heap[index] = vertex;
+		position[vertex] = index;
+	}
+}
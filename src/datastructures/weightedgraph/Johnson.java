@@ -0,0 +1,109 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs shortest paths on a graph with negative weights but no negative
+ * cycle. Running BellmanFord from every vertex costs O(N * N * E); Johnson's
+ * algorithm runs it once and then Dijkstra's algorithm from every vertex.
+ *
+ * The one Bellman-Ford search, BellmanFord.searchFromAll(), gives every
+ * vertex v a potential h(v) <= 0, its distance from an extra vertex with an
+ * arc of weight 0 to every vertex. The potentials obey h(v) <= h(u) + w(u, v)
+ * for every arc, so the new weight
+ *
+ * w'(u, v) = w(u, v) + h(u) - h(v)
+ *
+ * is never negative. Along any path from s to t the potentials in between
+ * cancel, and the new length is the old one plus h(s) - h(t), the same for
+ * all paths between the two vertices. Shortest paths stay shortest, Dijkstra
+ * finds them in the reweighted graph, and subtracting h(s) - h(t) again gives
+ * the real distance.
+ *
+ * The constructor does the Bellman-Ford search and the reweighting, once;
+ * after that every search is a plain Dijkstra search, from any number of
+ * threads.
+ */
+public class Johnson {
+	final WeightedCSRGraph reweighted;
+	final long[] potential;
+
+	/**
+	 * @param graph
+	 * @throws IllegalArgumentException
+	 *             if the graph has a negative cycle
+	 * @throws ArithmeticException
+	 *             if a new weight does not fit in a long
+	 */
+	public Johnson(WeightedCSRGraph graph) {
+		BellmanFord.Result potentials = new BellmanFord(graph).searchFromAll();
+		if (potentials.hasNegativeCycle()) {
+			throw new IllegalArgumentException(
+					"Graph has a negative cycle : " + Arrays.toString(potentials.getNegativeCycle()));
+		}
+		this.potential = potentials.getDistances();
+		long[] weights = new long[graph.weights.length];
+		for (int vertex = 0; vertex < graph.vertexCount; vertex++) {
+			for (int arc = graph.offsets[vertex]; arc < graph.offsets[vertex + 1]; arc++) {
+				long shift = Math.subtractExact(potential[vertex], potential[graph.targets[arc]]);
+				weights[arc] = Math.addExact(graph.weights[arc], shift);
+			}
+		}
+		this.reweighted = new WeightedCSRGraph(graph.vertexCount, graph.offsets, graph.targets, weights);
+	}
+
+	public static void main(String[] args) {
+		int[] from = { 0, 0, 1, 2, 3, 3 };
+		int[] to = { 1, 2, 3, 1, 2, 4 };
+		long[] weight = { 4, 5, 3, -4, 2, 1 };
+		Johnson johnson = new Johnson(WeightedCSRGraph.fromEdgeList(5, from, to, weight, from.length, true));
+		System.out.println("Potentials : " + Arrays.toString(johnson.getPotentials()));
+		long[][] distances = johnson.allPairs();
+		for (int source = 0; source < distances.length; source++) {
+			System.out.println("From " + source + " : " + Arrays.toString(distances[source]));
+		}
+	}
+
+	/**
+	 * @return the weights made non negative, on the arcs of the original graph
+	 */
+	public WeightedCSRGraph getReweighted() {
+		return reweighted;
+	}
+
+	public long[] getPotentials() {
+		return potential;
+	}
+
+	/**
+	 * Dijkstra's algorithm on the reweighted graph, with the distances turned
+	 * back into distances of the original graph. The parents need no change.
+	 *
+	 * @param source
+	 * @return
+	 */
+	public ShortestPathTree search(int source) {
+		ShortestPathTree tree = reweighted.performDijkstra(source);
+		long[] distance = tree.getDistances();
+		for (int vertex = 0; vertex < distance.length; vertex++) {
+			if (distance[vertex] != ShortestPathTree.UNREACHABLE) {
+				distance[vertex] += potential[vertex] - potential[source];
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * One search from every vertex, in parallel.
+	 *
+	 * @return distances[source][target], ShortestPathTree.UNREACHABLE if there
+	 *         is no path
+	 */
+	public long[][] allPairs() {
+		long[][] distances = new long[reweighted.vertexCount][];
+		IntStream.range(0, reweighted.vertexCount).parallel()
+				.forEach(source -> distances[source] = search(source).getDistances());
+		return distances;
+	}
+}
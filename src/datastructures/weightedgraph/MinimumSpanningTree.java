@@ -0,0 +1,367 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import datastructures.graph.UnionFind;
+
+/**
+ * A minimum spanning tree connects all vertices of an undirected weighted
+ * graph with the least total edge weight. A graph of several components has
+ * no spanning tree; it gets one minimum tree per component instead, together
+ * a minimum spanning forest of N - C edges for C components.
+ *
+ * The tree is returned as primitive arrays: edgeFrom[], edgeTo[] and
+ * edgeWeight[] list the tree edges in the order they were added.
+ *
+ * Three algorithms build it. Prim's grows one tree from a vertex and suits
+ * dense graphs. Kruskal's sorts all edges once and then only needs a
+ * union-find, which suits sparse graphs. Boruvka's joins every component to
+ * its nearest neighbor in each round; the search for the nearest neighbors
+ * runs over all edges in parallel, which suits large graphs on many cores.
+ */
+public class MinimumSpanningTree {
+	final int[] edgeFrom;
+	final int[] edgeTo;
+	final long[] edgeWeight;
+	final long totalWeight;
+
+	MinimumSpanningTree(int[] edgeFrom, int[] edgeTo, long[] edgeWeight, int edgeCount) {
+		this.edgeFrom = Arrays.copyOf(edgeFrom, edgeCount);
+		this.edgeTo = Arrays.copyOf(edgeTo, edgeCount);
+		this.edgeWeight = Arrays.copyOf(edgeWeight, edgeCount);
+		long total = 0;
+		for (int edge = 0; edge < edgeCount; edge++) {
+			total += edgeWeight[edge];
+		}
+		this.totalWeight = total;
+	}
+
+	public static void main(String[] args) {
+		// Same graph as WeightedGraph.initializeGraphForMSTW()
+		int[] from = { 0, 0, 1, 1, 1, 2, 2, 2, 3, 4 };
+		int[] to = { 1, 3, 2, 3, 4, 3, 4, 5, 4, 5 };
+		long[] weight = { 6, 4, 10, 7, 7, 8, 5, 6, 12, 7 };
+		WeightedCSRGraph graph = WeightedCSRGraph.fromEdgeList(6, from, to, weight, from.length, false);
+		MinimumSpanningTree tree = prim(graph);
+		System.out.print("Prim : ");
+		for (int edge = 0; edge < tree.getEdgeCount(); edge++) {
+			System.out.print((char) ('A' + tree.edgeFrom[edge]) + "" + (char) ('A' + tree.edgeTo[edge])
+					+ tree.edgeWeight[edge] + " ");
+		}
+		System.out.println("total " + tree.getTotalWeight());
+		System.out.println("Kruskal : total " + kruskal(graph).getTotalWeight() + ", Boruvka : total "
+				+ boruvka(graph).getTotalWeight());
+		// Weights spread over 2^31 apart, too far to pack into a sort key
+		graph = WeightedCSRGraph.fromEdgeList(3, new int[] { 0, 1, 2 }, new int[] { 1, 2, 0 },
+				new long[] { 0, 0, 3000000000L }, 3, false);
+		long wideWeight = prim(graph).getTotalWeight();
+		System.out.println("Wide weights : Prim total " + wideWeight + ", same total : "
+				+ (wideWeight == kruskal(graph).getTotalWeight() && wideWeight == boruvka(graph).getTotalWeight()));
+
+		int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		graph = randomGraph(vertexCount, 8, 42);
+		for (int round = 0; round < 3; round++) {
+			long begin = System.nanoTime();
+			long primWeight = prim(graph).getTotalWeight();
+			long primTime = System.nanoTime() - begin;
+			begin = System.nanoTime();
+			long kruskalWeight = kruskal(graph).getTotalWeight();
+			long kruskalTime = System.nanoTime() - begin;
+			begin = System.nanoTime();
+			long boruvkaWeight = boruvka(graph).getTotalWeight();
+			long boruvkaTime = System.nanoTime() - begin;
+			System.out.println("Random graph of " + vertexCount + " vertices : Prim " + primTime / 1000000
+					+ " ms, Kruskal " + kruskalTime / 1000000 + " ms, Boruvka " + boruvkaTime / 1000000
+					+ " ms, same total : " + (primWeight == kruskalWeight && kruskalWeight == boruvkaWeight));
+		}
+	}
+
+	static WeightedCSRGraph randomGraph(int vertexCount, int degree, long seed) {
+		Random random = new Random(seed);
+		int edgeCount = vertexCount * degree / 2;
+		int[] from = new int[edgeCount];
+		int[] to = new int[edgeCount];
+		long[] weight = new long[edgeCount];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			from[edge] = random.nextInt(vertexCount);
+			to[edge] = random.nextInt(vertexCount);
+			weight[edge] = 1 + random.nextInt(1000);
+		}
+		return WeightedCSRGraph.fromEdgeList(vertexCount, from, to, weight, edgeCount, false);
+	}
+
+	public int[] getEdgeFrom() {
+		return edgeFrom;
+	}
+
+	public int[] getEdgeTo() {
+		return edgeTo;
+	}
+
+	public long[] getEdgeWeight() {
+		return edgeWeight;
+	}
+
+	public int getEdgeCount() {
+		return edgeFrom.length;
+	}
+
+	public long getTotalWeight() {
+		return totalWeight;
+	}
+
+	/**
+	 * Prim's algorithm grows the tree from one vertex, each time adding the
+	 * lightest edge that joins a vertex outside the tree to the tree. Instead
+	 * of a queue of edges, the heap holds the vertices outside the tree, keyed
+	 * by the weight of the lightest edge known that joins them to the tree;
+	 * parent[] remembers the tree end of that edge. When a vertex joins the
+	 * tree, its edges can only lower the keys of its neighbors (decrease-key).
+	 * A vertex in the tree is never in the heap, so no edge to the tree is
+	 * ever picked twice, and the heap never holds more than N entries: O(E log
+	 * N) in all. When the heap runs empty before every vertex is in the tree,
+	 * the search restarts at the next vertex not reached, so every component
+	 * gets its tree.
+	 *
+	 * @param graph
+	 *            an undirected graph
+	 * @return
+	 */
+	public static MinimumSpanningTree prim(WeightedCSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		long[] weights = graph.weights;
+		boolean[] inTree = new boolean[vertexCount];
+		int[] parent = new int[vertexCount];
+		Arrays.fill(parent, -1);
+		IndexedMinHeap heap = new IndexedMinHeap(vertexCount);
+		int[] edgeFrom = new int[vertexCount];
+		int[] edgeTo = new int[vertexCount];
+		long[] edgeWeight = new long[vertexCount];
+		int edgeCount = 0;
+		for (int root = 0; root < vertexCount; root++) {
+			if (inTree[root]) {
+				continue;
+			}
+			heap.insertOrDecrease(root, 0);
+			while (!heap.isEmpty()) {
+				long weight = heap.minKey();
+				int currentVertex = heap.removeMin();
+				inTree[currentVertex] = true;
+				if (parent[currentVertex] != -1) {
+					edgeFrom[edgeCount] = parent[currentVertex];
+					edgeTo[edgeCount] = currentVertex;
+					edgeWeight[edgeCount++] = weight;
+				}
+				for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+					int endVertex = targets[arc];
+					if (!inTree[endVertex] && heap.insertOrDecrease(endVertex, weights[arc])) {
+						parent[endVertex] = currentVertex;
+					}
+				}
+			}
+		}
+		return new MinimumSpanningTree(edgeFrom, edgeTo, edgeWeight, edgeCount);
+	}
+
+	/**
+	 * The edges of an undirected graph, each once, in primitive arrays. Sort
+	 * keys pack the weight, shifted by the lightest weight, in the upper 32
+	 * bits, with the edge number in the lower 32 bits. Ordering by key then
+	 * orders the edges by weight, and edges of equal weight by number, so no
+	 * two edges ever tie. The keys are compared as signed longs, so the
+	 * shifted weight must stay below 2^31, clear of the sign bit. When the
+	 * weights spread further, the rank of the weight among all distinct
+	 * weights takes its place, which orders the same way.
+	 */
+	static class EdgeList {
+		final int[] from;
+		final int[] to;
+		final long[] weight;
+		final int count;
+		final long minWeight;
+		final int[] weightRank; // null when the shifted weights fit
+
+		EdgeList(WeightedCSRGraph graph) {
+			int[] offsets = graph.offsets;
+			int[] targets = graph.targets;
+			long[] weights = graph.weights;
+			int edgeCount = 0;
+			for (int vertex = 0; vertex < graph.vertexCount; vertex++) {
+				for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+					if (vertex < targets[arc]) {
+						edgeCount++;
+					}
+				}
+			}
+			from = new int[edgeCount];
+			to = new int[edgeCount];
+			weight = new long[edgeCount];
+			long lightest = Long.MAX_VALUE;
+			long heaviest = Long.MIN_VALUE;
+			int edge = 0;
+			for (int vertex = 0; vertex < graph.vertexCount; vertex++) {
+				for (int arc = offsets[vertex]; arc < offsets[vertex + 1]; arc++) {
+					// Each undirected edge is kept at its lower end; self loops
+					// never belong to a tree
+					if (vertex < targets[arc]) {
+						from[edge] = vertex;
+						to[edge] = targets[arc];
+						weight[edge] = weights[arc];
+						lightest = Math.min(lightest, weights[arc]);
+						heaviest = Math.max(heaviest, weights[arc]);
+						edge++;
+					}
+				}
+			}
+			count = edgeCount;
+			minWeight = lightest;
+			long spread = heaviest - lightest;
+			if (edgeCount == 0 || (spread >= 0 && spread <= Integer.MAX_VALUE)) {
+				weightRank = null;
+			} else {
+				long[] sorted = weight.clone();
+				Arrays.parallelSort(sorted);
+				int distinct = 0;
+				for (int index = 0; index < sorted.length; index++) {
+					if (index == 0 || sorted[index] != sorted[index - 1]) {
+						sorted[distinct++] = sorted[index];
+					}
+				}
+				weightRank = new int[edgeCount];
+				for (edge = 0; edge < edgeCount; edge++) {
+					weightRank[edge] = Arrays.binarySearch(sorted, 0, distinct, weight[edge]);
+				}
+			}
+		}
+
+		long key(int edge) {
+			long level = weightRank == null ? weight[edge] - minWeight : weightRank[edge];
+			return level << 32 | edge;
+		}
+	}
+
+	/**
+	 * Kruskal's algorithm takes the edges from light to heavy and keeps every
+	 * edge that joins two different trees, which a union-find tells in
+	 * O(alpha(N)). The edges are sorted once as packed long keys with
+	 * Arrays.parallelSort(), which sorts on all cores and creates no object
+	 * per edge. O(E log E) for the sort, then O(E alpha(N)). The loop stops as
+	 * soon as the forest is complete.
+	 *
+	 * @param graph
+	 *            an undirected graph
+	 * @return
+	 */
+	public static MinimumSpanningTree kruskal(WeightedCSRGraph graph) {
+		int vertexCount = graph.vertexCount;
+		EdgeList edges = new EdgeList(graph);
+		long[] keys = new long[edges.count];
+		for (int edge = 0; edge < edges.count; edge++) {
+			keys[edge] = edges.key(edge);
+		}
+		Arrays.parallelSort(keys);
+		UnionFind forest = new UnionFind(vertexCount);
+		int[] edgeFrom = new int[vertexCount];
+		int[] edgeTo = new int[vertexCount];
+		long[] edgeWeight = new long[vertexCount];
+		int edgeCount = 0;
+		for (int index = 0; index < keys.length && forest.getComponentCount() > 1; index++) {
+			int edge = (int) keys[index];
+			if (forest.union(edges.from[edge], edges.to[edge])) {
+				edgeFrom[edgeCount] = edges.from[edge];
+				edgeTo[edgeCount] = edges.to[edge];
+				edgeWeight[edgeCount++] = edges.weight[edge];
+			}
+		}
+		return new MinimumSpanningTree(edgeFrom, edgeTo, edgeWeight, edgeCount);
+	}
+
+	/**
+	 * Boruvka's algorithm works in rounds. In every round each component
+	 * picks the lightest edge leaving it, and all picked edges join the
+	 * forest at once. Each round at least halves the number of components,
+	 * so there are at most log2(N) rounds.
+	 *
+	 * The search for the lightest edges is the expensive part, a pass over
+	 * all edges, and it runs in parallel: every edge between two components
+	 * offers itself to both of them with a compare-and-set on the packed key
+	 * of their best edge so far. Since no two keys are equal, the picked edges
+	 * can never close a cycle. Joining the components and renumbering the
+	 * vertices costs O(N) per round and runs on one thread. Edges inside a
+	 * component are dropped after every round, so later rounds get cheaper.
+	 *
+	 * @param graph
+	 *            an undirected graph
+	 * @return
+	 */
+	public static MinimumSpanningTree boruvka(WeightedCSRGraph graph) {
+		final int vertexCount = graph.vertexCount;
+		final EdgeList edges = new EdgeList(graph);
+		final int[] component = new int[vertexCount];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			component[vertex] = vertex;
+		}
+		final AtomicLongArray best = new AtomicLongArray(vertexCount);
+		UnionFind forest = new UnionFind(vertexCount);
+		int[] live = new int[edges.count];
+		for (int edge = 0; edge < edges.count; edge++) {
+			live[edge] = edge;
+		}
+		int liveCount = edges.count;
+		int[] edgeFrom = new int[vertexCount];
+		int[] edgeTo = new int[vertexCount];
+		long[] edgeWeight = new long[vertexCount];
+		int edgeCount = 0;
+		while (liveCount > 0) {
+			for (int vertex = 0; vertex < vertexCount; vertex++) {
+				best.set(vertex, Long.MAX_VALUE);
+			}
+			final int[] current = live;
+			IntStream.range(0, liveCount).parallel().forEach(index -> {
+				int edge = current[index];
+				long key = edges.key(edge);
+				offer(best, component[edges.from[edge]], key);
+				offer(best, component[edges.to[edge]], key);
+			});
+			for (int vertex = 0; vertex < vertexCount; vertex++) {
+				long key = best.get(vertex);
+				if (key == Long.MAX_VALUE) {
+					continue;
+				}
+				int edge = (int) key;
+				if (forest.union(edges.from[edge], edges.to[edge])) {
+					edgeFrom[edgeCount] = edges.from[edge];
+					edgeTo[edgeCount] = edges.to[edge];
+					edgeWeight[edgeCount++] = edges.weight[edge];
+				}
+			}
+			for (int vertex = 0; vertex < vertexCount; vertex++) {
+				component[vertex] = forest.find(vertex);
+			}
+			int write = 0;
+			for (int index = 0; index < liveCount; index++) {
+				int edge = live[index];
+				if (component[edges.from[edge]] != component[edges.to[edge]]) {
+					live[write++] = edge;
+				}
+			}
+			liveCount = write;
+		}
+		return new MinimumSpanningTree(edgeFrom, edgeTo, edgeWeight, edgeCount);
+	}
+
+	/**
+	 * Lowers best[component] to key unless it holds a lower key already.
+	 */
+	static void offer(AtomicLongArray best, int component, long key) {
+		long current = best.get(component);
+		while (key < current && !best.compareAndSet(component, current, key)) {
+			current = best.get(component);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+
+/**
+ * Answers shortest path questions between two given vertices. Dijkstra's
+ * algorithm from the source settles every vertex closer than the target
+ * before it reaches the target, a disc around the source. Two ways of
+ * settling fewer vertices are implemented; both stop as soon as the shortest
+ * path is known.
+ *
+ * 1) Bidirectional Dijkstra : one search forward from the source and one
+ * backward from the target, along reversed arcs, taking turns. On a road
+ * network the two discs of half the radius cover about half the area of the
+ * one big disc.
+ *
+ * 2) A* : a single search from the source, but the heap is ordered by the
+ * distance from the source plus a Heuristic's estimate of the distance left
+ * to the target. Vertices that lead away from the target come up late, and
+ * most of them are never settled at all.
+ *
+ * The reversed graph is built once by the constructor and shared by all
+ * questions. Every question allocates its own arrays, so one PointToPoint can
+ * answer questions from many threads at once.
+ *
+ * Both searches take a vertex as settled for good, so weights must not be
+ * negative; the constructor refuses such graphs. See BellmanFord for them.
+ */
+public class PointToPoint {
+	final WeightedCSRGraph graph;
+	final WeightedCSRGraph reverse;
+
+	/**
+	 * @param graph
+	 * @throws IllegalArgumentException
+	 *             if a weight is negative
+	 */
+	public PointToPoint(WeightedCSRGraph graph) {
+		for (long weight : graph.weights) {
+			if (weight < 0) {
+				throw new IllegalArgumentException("Point to point search needs weights of 0 or more : " + weight);
+			}
+		}
+		this.graph = graph;
+		this.reverse = graph.transpose();
+	}
+
+	public static void main(String[] args) {
+		// Same graph as WeightedGraph.initializeGraphForDijkstra()
+		int[] from = { 0, 0, 1, 1, 2, 3, 3, 4 };
+		int[] to = { 1, 3, 2, 3, 4, 2, 4, 1 };
+		long[] weight = { 50, 80, 60, 90, 40, 20, 70, 50 };
+		PointToPoint router = new PointToPoint(WeightedCSRGraph.fromEdgeList(5, from, to, weight, from.length, true));
+		Path path = router.bidirectionalDijkstra(0, 4);
+		System.out.println("Bidirectional A to E : " + path.getDistance() + " via " + Arrays.toString(path.getVertices())
+				+ ", " + path.getSettledCount() + " vertices settled");
+		path = router.aStar(0, 4, new Heuristic() {
+			public long estimate(int vertex, int target) {
+				return 0;
+			}
+		});
+		System.out.println("A* A to E : " + path.getDistance() + " via " + Arrays.toString(path.getVertices()) + ", "
+				+ path.getSettledCount() + " vertices settled");
+	}
+
+	public static class Path {
+		final int[] vertices;
+		final long distance;
+		final int settledCount;
+
+		Path(int[] vertices, long distance, int settledCount) {
+			this.vertices = vertices;
+			this.distance = distance;
+			this.settledCount = settledCount;
+		}
+
+		/**
+		 * @return the vertices on the path from the source to the target, both
+		 *         included, or null if the target can not be reached
+		 */
+		public int[] getVertices() {
+			return vertices;
+		}
+
+		/**
+		 * @return the length of the path, or ShortestPathTree.UNREACHABLE
+		 */
+		public long getDistance() {
+			return distance;
+		}
+
+		public boolean isFound() {
+			return vertices != null;
+		}
+
+		/**
+		 * @return the number of vertices the search settled, a measure of its
+		 *         work
+		 */
+		public int getSettledCount() {
+			return settledCount;
+		}
+	}
+
+	/**
+	 * Runs Dijkstra's algorithm forward from the source and backward from the
+	 * target, always advancing the search whose heap has the lower minimum.
+	 * Whenever an arc leads one search to a vertex the other search has
+	 * reached, the two distances plus the arc give a path from source to
+	 * target, and the shortest such path seen is remembered. Once the two
+	 * heap minimums add up to at least that length, no path through a vertex
+	 * not yet settled can be shorter, and the search stops.
+	 *
+	 * @param source
+	 * @param target
+	 * @return
+	 */
+	public Path bidirectionalDijkstra(int source, int target) {
+		int vertexCount = graph.vertexCount;
+		WeightedCSRGraph.checkVertex(source, vertexCount);
+		WeightedCSRGraph.checkVertex(target, vertexCount);
+		if (source == target) {
+			return new Path(new int[] { source }, 0, 1);
+		}
+		long[] forwardDistance = new long[vertexCount];
+		long[] backwardDistance = new long[vertexCount];
+		int[] forwardParent = new int[vertexCount];
+		int[] backwardParent = new int[vertexCount];
+		Arrays.fill(forwardDistance, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(backwardDistance, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(forwardParent, -1);
+		Arrays.fill(backwardParent, -1);
+		boolean[] forwardSettled = new boolean[vertexCount];
+		boolean[] backwardSettled = new boolean[vertexCount];
+		IndexedMinHeap forwardHeap = new IndexedMinHeap(vertexCount);
+		IndexedMinHeap backwardHeap = new IndexedMinHeap(vertexCount);
+		forwardDistance[source] = 0;
+		backwardDistance[target] = 0;
+		forwardHeap.insertOrDecrease(source, 0);
+		backwardHeap.insertOrDecrease(target, 0);
+		long best = ShortestPathTree.UNREACHABLE;
+		int meeting = -1;
+		int settledCount = 0;
+		while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+			if (ShortestPathTree.saturatedAdd(forwardHeap.minKey(), backwardHeap.minKey()) >= best) {
+				break;
+			}
+			boolean forward = forwardHeap.minKey() <= backwardHeap.minKey();
+			WeightedCSRGraph side = forward ? graph : reverse;
+			IndexedMinHeap heap = forward ? forwardHeap : backwardHeap;
+			long[] distance = forward ? forwardDistance : backwardDistance;
+			long[] otherDistance = forward ? backwardDistance : forwardDistance;
+			int[] parent = forward ? forwardParent : backwardParent;
+			boolean[] settled = forward ? forwardSettled : backwardSettled;
+
+			int currentVertex = heap.removeMin();
+			settled[currentVertex] = true;
+			settledCount++;
+			long startToCurrentDistance = distance[currentVertex];
+			for (int arc = side.offsets[currentVertex]; arc < side.offsets[currentVertex + 1]; arc++) {
+				int fringeVertex = side.targets[arc];
+				long startToFringeDistance = ShortestPathTree.saturatedAdd(startToCurrentDistance, side.weights[arc]);
+				if (!settled[fringeVertex] && startToFringeDistance < distance[fringeVertex]) {
+					distance[fringeVertex] = startToFringeDistance;
+					parent[fringeVertex] = currentVertex;
+					heap.insertOrDecrease(fringeVertex, startToFringeDistance);
+				}
+				long throughFringe = ShortestPathTree.saturatedAdd(distance[fringeVertex], otherDistance[fringeVertex]);
+				if (otherDistance[fringeVertex] != ShortestPathTree.UNREACHABLE && throughFringe < best) {
+					best = throughFringe;
+					meeting = fringeVertex;
+				}
+			}
+		}
+		if (meeting == -1) {
+			return new Path(null, ShortestPathTree.UNREACHABLE, settledCount);
+		}
+		// Source to the meeting vertex along forward parents, then on to the
+		// target along backward parents
+		int length = 0;
+		for (int vertex = meeting; vertex != -1; vertex = forwardParent[vertex]) {
+			length++;
+		}
+		for (int vertex = backwardParent[meeting]; vertex != -1; vertex = backwardParent[vertex]) {
+			length++;
+		}
+		int[] vertices = new int[length];
+		int index = 0;
+		for (int vertex = meeting; vertex != -1; vertex = forwardParent[vertex]) {
+			vertices[index++] = vertex;
+		}
+		for (int low = 0, high = index - 1; low < high; low++, high--) {
+			int swap = vertices[low];
+			vertices[low] = vertices[high];
+			vertices[high] = swap;
+		}
+		for (int vertex = backwardParent[meeting]; vertex != -1; vertex = backwardParent[vertex]) {
+			vertices[index++] = vertex;
+		}
+		return new Path(vertices, best, settledCount);
+	}
+
+	/**
+	 * A* search from source to target. The heap is keyed by distance from the
+	 * source plus heuristic.estimate(vertex, target), and the search stops
+	 * when the target leaves the heap. With a heuristic that is admissible but
+	 * not consistent, a vertex may be found a shorter way after it has left
+	 * the heap; it then goes back into the heap, so the path found is still a
+	 * shortest one.
+	 *
+	 * @param source
+	 * @param target
+	 * @param heuristic
+	 * @return
+	 */
+	public Path aStar(int source, int target, Heuristic heuristic) {
+		int vertexCount = graph.vertexCount;
+		WeightedCSRGraph.checkVertex(source, vertexCount);
+		WeightedCSRGraph.checkVertex(target, vertexCount);
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		long[] weights = graph.weights;
+		long[] distance = new long[vertexCount];
+		int[] parent = new int[vertexCount];
+		Arrays.fill(distance, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(parent, -1);
+		IndexedMinHeap heap = new IndexedMinHeap(vertexCount);
+		distance[source] = 0;
+		heap.insertOrDecrease(source, heuristic.estimate(source, target));
+		int settledCount = 0;
+		while (!heap.isEmpty()) {
+			int currentVertex = heap.removeMin();
+			settledCount++;
+			if (currentVertex == target) {
+				return new Path(new ShortestPathTree(source, distance, parent).getPath(target), distance[target],
+						settledCount);
+			}
+			long startToCurrentDistance = distance[currentVertex];
+			for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+				int fringeVertex = targets[arc];
+				long startToFringeDistance = ShortestPathTree.saturatedAdd(startToCurrentDistance, weights[arc]);
+				if (startToFringeDistance < distance[fringeVertex]) {
+					distance[fringeVertex] = startToFringeDistance;
+					parent[fringeVertex] = currentVertex;
+					heap.insertOrDecrease(fringeVertex, ShortestPathTree.saturatedAdd(startToFringeDistance,
+							heuristic.estimate(fringeVertex, target)));
+				}
+			}
+		}
+		return new Path(null, ShortestPathTree.UNREACHABLE, settledCount);
+	}
+}
@@ -0,0 +1,178 @@
+package datastructures.weightedgraph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the ShortestPathTree of the sources asked for most recently, so that
+ * asking again from the same source costs a lookup instead of a search. A
+ * tree takes 12 bytes per vertex (a long distance and an int parent); the
+ * trees are kept as long as they fit in the memory budget together, and the
+ * tree used least recently goes first (LRU) when a new one does not fit.
+ *
+ * When the weight of an arc from a to b changes, only the trees the change
+ * can affect are dropped:
+ *
+ * 1) A lower weight, or a new arc, makes a tree wrong only if the tree can
+ * reach a, and a's distance plus the new weight is below b's distance.
+ *
+ * 2) A higher weight makes a tree wrong only if the arc is in the tree, with
+ * a the parent of b. A path that does not use the arc keeps its length, and
+ * the tree's paths do not use it.
+ *
+ * The trees handed out are the cached ones; they must not be changed. Like
+ * WeightedGraph, the cache is not safe for use by several threads at once.
+ */
+public class ShortestPathCache {
+	static final long TREE_OVERHEAD_BYTES = 64;
+
+	final long memoryBudget;
+	// Access order: iteration starts with the tree used least recently
+	final LinkedHashMap<Integer, ShortestPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+	long usedBytes;
+	long hitCount;
+	long missCount;
+	long evictionCount;
+	long invalidationCount;
+
+	/**
+	 * @param memoryBudget
+	 *            the bytes the cached trees may take together
+	 */
+	public ShortestPathCache(long memoryBudget) {
+		if (memoryBudget < 0) {
+			throw new IllegalArgumentException("Memory budget must not be negative : " + memoryBudget);
+		}
+		this.memoryBudget = memoryBudget;
+	}
+
+	public static void main(String[] args) {
+		WeightedGraph graph = new WeightedGraph(5);
+		graph.initializeGraphForDijkstra();
+		// Room for two trees of 5 vertices
+		graph.enableShortestPathCache(2 * sizeOf(5));
+		for (int source : new int[] { 0, 1, 0, 2, 0, 3, 0 }) {
+			graph.shortestPaths(source);
+		}
+		System.out.println("After 7 questions : " + graph.shortestPathCache);
+		graph.addDirectedWeightedEdge(2, 1, 10); // CB 10, a shorter way to B from D, not from A
+		graph.addDirectedWeightedEdge(3, 2, 25); // DC 25, heavier, and in the tree of A
+		System.out.println("After 2 edge changes : " + graph.shortestPathCache);
+		graph.printPath(graph.shortestPaths(0));
+	}
+
+	/**
+	 * @return the bytes a tree of the given number of vertices is counted as
+	 */
+	static long sizeOf(int vertexCount) {
+		return TREE_OVERHEAD_BYTES + 12L * vertexCount;
+	}
+
+	/**
+	 * @param source
+	 * @param search
+	 *            finds the tree of a source that is not in the cache
+	 * @return the tree of the source
+	 */
+	public ShortestPathTree get(int source, IntFunction<ShortestPathTree> search) {
+		ShortestPathTree tree = trees.get(source);
+		if (tree != null) {
+			hitCount++;
+			return tree;
+		}
+		missCount++;
+		tree = search.apply(source);
+		long size = sizeOf(tree.distance.length);
+		if (size > memoryBudget) {
+			return tree;
+		}
+		Iterator<ShortestPathTree> leastRecent = trees.values().iterator();
+		while (usedBytes + size > memoryBudget) {
+			usedBytes -= sizeOf(leastRecent.next().distance.length);
+			leastRecent.remove();
+			evictionCount++;
+		}
+		trees.put(source, tree);
+		usedBytes += size;
+		return tree;
+	}
+
+	/**
+	 * Drops the trees that the new weight of the arc from a to b can make
+	 * wrong.
+	 *
+	 * @param vertexIndexA
+	 * @param vertexIndexB
+	 * @param oldWeight
+	 *            the weight before, ShortestPathTree.UNREACHABLE for a new arc
+	 * @param newWeight
+	 */
+	public void arcChanged(int vertexIndexA, int vertexIndexB, long oldWeight, long newWeight) {
+		if (newWeight == oldWeight) {
+			return;
+		}
+		Iterator<ShortestPathTree> iterator = trees.values().iterator();
+		while (iterator.hasNext()) {
+			ShortestPathTree tree = iterator.next();
+			boolean affected;
+			if (newWeight < oldWeight) {
+				affected = tree.isReachable(vertexIndexA) && ShortestPathTree
+						.saturatedAdd(tree.distance[vertexIndexA], newWeight) < tree.distance[vertexIndexB];
+			} else {
+				affected = tree.parent[vertexIndexB] == vertexIndexA;
+			}
+			if (affected) {
+				usedBytes -= sizeOf(tree.distance.length);
+				iterator.remove();
+				invalidationCount++;
+			}
+		}
+	}
+
+	/**
+	 * Drops every tree, for a change that affects them all, like a new
+	 * vertex.
+	 */
+	public void clear() {
+		invalidationCount += trees.size();
+		trees.clear();
+		usedBytes = 0;
+	}
+
+	public int size() {
+		return trees.size();
+	}
+
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of trees dropped to make room for others
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of trees dropped because the graph changed
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	@Override
+	public String toString() {
+		return size() + " trees in " + usedBytes + " of " + memoryBudget + " bytes, " + hitCount + " hits, "
+				+ missCount + " misses, " + evictionCount + " evictions, " + invalidationCount + " invalidations";
+	}
+}
@@ -0,0 +1,84 @@
+package datastructures.weightedgraph;
+
+/**
+ * The result of a single source shortest path search: the minimum distance
+ * from the source to every vertex, and the path taken. The entire path is not
+ * stored for each vertex; only its parent, the vertex reached just before it,
+ * is. Following the parents back from a vertex to the source gives the path
+ * in reverse.
+ *
+ * A vertex the search can not reach has distance UNREACHABLE and parent -1.
+ * Distances are added with saturatedAdd(), so a path whose length does not
+ * fit in a long counts as UNREACHABLE instead of wrapping around to a small
+ * or negative number that would win every comparison.
+ */
+public class ShortestPathTree {
+	public static final long UNREACHABLE = Long.MAX_VALUE;
+
+	final int source;
+	final long[] distance;
+	final int[] parent;
+
+	ShortestPathTree(int source, long[] distance, int[] parent) {
+		this.source = source;
+		this.distance = distance;
+		this.parent = parent;
+	}
+
+	/**
+	 * @return distance + weight, or UNREACHABLE (Long.MIN_VALUE for negative
+	 *         weights) if the sum overflows a long
+	 */
+	static long saturatedAdd(long distance, long weight) {
+		long sum = distance + weight;
+		// The sum overflowed if it has a sign different from both operands
+		if (((distance ^ sum) & (weight ^ sum)) < 0) {
+			return weight > 0 ? UNREACHABLE : Long.MIN_VALUE;
+		}
+		return sum;
+	}
+
+	public int getSource() {
+		return source;
+	}
+
+	public long getDistance(int vertex) {
+		return distance[vertex];
+	}
+
+	/**
+	 * @return the parent of every vertex, -1 for the source and for vertices
+	 *         that can not be reached
+	 */
+	public int[] getParent() {
+		return parent;
+	}
+
+	public long[] getDistances() {
+		return distance;
+	}
+
+	public boolean isReachable(int vertex) {
+		return distance[vertex] != UNREACHABLE;
+	}
+
+	/**
+	 * @param target
+	 * @return the vertices on a shortest path from the source to target, both
+	 *         included, or null if target can not be reached
+	 */
+	public int[] getPath(int target) {
+		if (!isReachable(target)) {
+			return null;
+		}
+		int length = 1;
+		for (int vertex = target; vertex != source; vertex = parent[vertex]) {
+			length++;
+		}
+		int[] path = new int[length];
+		for (int vertex = target, index = length - 1; index >= 0; vertex = parent[vertex], index--) {
+			path[index] = vertex;
+		}
+		return path;
+	}
+}
@@ -0,0 +1,200 @@
+package datastructures.weightedgraph;
+
+import java.util.Arrays;
+
+/**
+ * The adjacency list form of a weighted graph, in Compressed Sparse Row
+ * layout: the arcs leaving vertex v are targets[offsets[v]] up to (but not
+ * including) targets[offsets[v + 1]], and weights[i] is the weight of the arc
+ * to targets[i]. The graph costs N + 1 + E ints and E longs, and the
+ * neighbors of a vertex are found in the time of its degree instead of a scan
+ * over a whole row of an adjacency matrix. An edge that is not in the lists
+ * does not exist; no weight value stands for a missing edge, so every long
+ * is a valid weight.
+ *
+ * WeightedGraph.toCSRGraph() builds one from its adjacency lists, and
+ * fromEdgeList() from arrays of edges.
+ */
+public class WeightedCSRGraph {
+	final int vertexCount;
+	final int[] offsets;
+	final int[] targets;
+	final long[] weights;
+
+	WeightedCSRGraph(int vertexCount, int[] offsets, int[] targets, long[] weights) {
+		this.vertexCount = vertexCount;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	public static void main(String[] args) {
+		// Same graph as WeightedGraph.initializeGraphForDijkstra()
+		int[] from = { 0, 0, 1, 1, 2, 3, 3, 4 };
+		int[] to = { 1, 3, 2, 3, 4, 2, 4, 1 };
+		long[] weight = { 50, 80, 60, 90, 40, 20, 70, 50 };
+		WeightedCSRGraph graph = fromEdgeList(5, from, to, weight, from.length, true);
+		ShortestPathTree tree = graph.performDijkstra(0);
+		for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+			System.out.println((char) ('A' + vertex) + " = " + tree.getDistance(vertex) + " via "
+					+ Arrays.toString(tree.getPath(vertex)));
+		}
+	}
+
+	/**
+	 * Builds a graph from the first edgeCount entries of three parallel
+	 * arrays, an edge edgeFrom[i] -> edgeTo[i] of weight edgeWeight[i]. For an
+	 * undirected graph each edge is stored in the adjacency list of both of
+	 * its end points. The arcs are bucketed by their source with a counting
+	 * sort, so construction is O(N + E).
+	 *
+	 * @param vertexCount
+	 * @param edgeFrom
+	 * @param edgeTo
+	 * @param edgeWeight
+	 * @param edgeCount
+	 * @param directed
+	 * @return
+	 */
+	public static WeightedCSRGraph fromEdgeList(int vertexCount, int[] edgeFrom, int[] edgeTo, long[] edgeWeight,
+			int edgeCount, boolean directed) {
+		int arcCount = directed ? edgeCount : 2 * edgeCount;
+		int[] offsets = new int[vertexCount + 1];
+		for (int edge = 0; edge < edgeCount; edge++) {
+			checkVertex(edgeFrom[edge], vertexCount);
+			checkVertex(edgeTo[edge], vertexCount);
+			offsets[edgeFrom[edge] + 1]++;
+			if (!directed) {
+				offsets[edgeTo[edge] + 1]++;
+			}
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			offsets[vertex + 1] += offsets[vertex];
+		}
+		int[] targets = new int[arcCount];
+		long[] weights = new long[arcCount];
+		int[] cursor = Arrays.copyOf(offsets, vertexCount);
+		for (int edge = 0; edge < edgeCount; edge++) {
+			int arc = cursor[edgeFrom[edge]]++;
+			targets[arc] = edgeTo[edge];
+			weights[arc] = edgeWeight[edge];
+			if (!directed) {
+				arc = cursor[edgeTo[edge]]++;
+				targets[arc] = edgeFrom[edge];
+				weights[arc] = edgeWeight[edge];
+			}
+		}
+		return new WeightedCSRGraph(vertexCount, offsets, targets, weights);
+	}
+
+	static void checkVertex(int vertex, int vertexCount) {
+		if (vertex < 0 || vertex >= vertexCount) {
+			throw new IndexOutOfBoundsException("Vertex " + vertex + " exceeds vertex count " + vertexCount);
+		}
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Number of entries in the adjacency lists. An undirected edge is counted
+	 * once for each of its end points.
+	 */
+	public int getArcCount() {
+		return targets.length;
+	}
+
+	public int degree(int vertex) {
+		return offsets[vertex + 1] - offsets[vertex];
+	}
+
+	/**
+	 * Returns the graph with every arc reversed, so that the adjacency list of
+	 * a vertex holds its predecessors along with the weights of their arcs.
+	 *
+	 * @return
+	 */
+	public WeightedCSRGraph transpose() {
+		int[] inOffsets = new int[vertexCount + 1];
+		for (int arc = 0; arc < targets.length; arc++) {
+			inOffsets[targets[arc] + 1]++;
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			inOffsets[vertex + 1] += inOffsets[vertex];
+		}
+		int[] sources = new int[targets.length];
+		long[] inWeights = new long[targets.length];
+		int[] cursor = Arrays.copyOf(inOffsets, vertexCount);
+		for (int source = 0; source < vertexCount; source++) {
+			for (int arc = offsets[source]; arc < offsets[source + 1]; arc++) {
+				int position = cursor[targets[arc]]++;
+				sources[position] = source;
+				inWeights[position] = weights[arc];
+			}
+		}
+		return new WeightedCSRGraph(vertexCount, inOffsets, sources, inWeights);
+	}
+
+	/**
+	 * Dijkstra's algorithm with an indexed d-ary heap. The heap holds the
+	 * vertices whose tentative distance is known but not yet final, keyed by
+	 * that distance:
+	 *
+	 * 1. Remove the vertex with the minimum distance from the heap. Its
+	 * distance is final now, and it goes into the settled set.
+	 *
+	 * 2. For every arc leaving it to a vertex not yet settled, check whether
+	 * going through the removed vertex is shorter than the distance known so
+	 * far. If so, record the new distance and parent, and insert the vertex
+	 * into the heap or lower its key there (decrease-key).
+	 *
+	 * Each vertex leaves the heap once and each arc is looked at once, so the
+	 * search is O((N + E) log N). DeltaStepping finds the same distances with
+	 * many threads.
+	 *
+	 * Weights must not be negative: a vertex that has left the heap could
+	 * still be reached by a shorter path over a negative arc, and the answer
+	 * would be wrong without any sign of it. Such graphs are refused; see
+	 * BellmanFord and Johnson for them.
+	 *
+	 * @param source
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             if a weight is negative
+	 */
+	public ShortestPathTree performDijkstra(int source) {
+		checkVertex(source, vertexCount);
+		for (long weight : weights) {
+			if (weight < 0) {
+				throw new IllegalArgumentException("Dijkstra needs weights of 0 or more : " + weight);
+			}
+		}
+		long[] distance = new long[vertexCount];
+		int[] parent = new int[vertexCount];
+		Arrays.fill(distance, ShortestPathTree.UNREACHABLE);
+		Arrays.fill(parent, -1);
+		boolean[] settled = new boolean[vertexCount];
+		IndexedMinHeap heap = new IndexedMinHeap(vertexCount);
+		distance[source] = 0;
+		heap.insertOrDecrease(source, 0);
+		while (!heap.isEmpty()) {
+			int currentVertex = heap.removeMin();
+			settled[currentVertex] = true;
+			long startToCurrentDistance = distance[currentVertex];
+			for (int arc = offsets[currentVertex]; arc < offsets[currentVertex + 1]; arc++) {
+				int fringeVertex = targets[arc];
+				if (settled[fringeVertex]) {
+					continue;
+				}
+				long startToFringeDistance = ShortestPathTree.saturatedAdd(startToCurrentDistance, weights[arc]);
+				if (startToFringeDistance < distance[fringeVertex]) {
+					distance[fringeVertex] = startToFringeDistance;
+					parent[fringeVertex] = currentVertex;
+					heap.insertOrDecrease(fringeVertex, startToFringeDistance);
+				}
+			}
+		}
+		return new ShortestPathTree(source, distance, parent);
+	}
+}
@@ -6,8 +6,7 @@ package datastructures.weightedgraph;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A weighted graph is a graph in which a number (the weight) is assigned to
@@ -21,50 +20,78 @@ import java.util.List;
  * 
  * 2) Dijkstra's Algorithm a.k.a Shortest Path Problem
  * 
+ * 3) Shortest path between two vertices, by bidirectional Dijkstra or A*
+ * 
+ * 4) Bellman-Ford a.k.a Shortest Path Problem with negative weights
+ * 
+ * 5) Floyd-Warshall a.k.a All Pairs Shortest Path Problem
+ * 
+ * Edges are kept in adjacency lists, an array of target vertices and a
+ * parallel array of long weights per vertex, so the graph takes O(N + E)
+ * memory. An edge that is not in the lists is absent; no weight value is
+ * reserved to mean "no edge", so every long, however large, is a valid
+ * weight. The searches run on the compact form of the lists,
+ * WeightedCSRGraph, which toCSRGraph() builds in O(N + E).
  * 
  * @author vshanmughada
  *
  */
 public class WeightedGraph {
 
-	static Vertex[] vertexList;
-	static int[][] adjacencyMatrix;
-	static int vertexCount;
-	static int edgeCount;
-	protected static final int INFINITY = 999999;
+	final Vertex[] vertexList;
+	// The arcs leaving vertex v go to adjacentVertices[v][0 .. degree[v] - 1],
+	// and adjacentWeights[v] holds their weights at the same positions
+	final int[][] adjacentVertices;
+	final long[][] adjacentWeights;
+	final int[] degree;
+	int vertexCount;
+	int edgeCount;
+	// null until enableShortestPathCache() is called
+	ShortestPathCache shortestPathCache;
 
 	public WeightedGraph(int vertexSize) {
 		vertexList = new Vertex[vertexSize];
-		adjacencyMatrix = new int[vertexSize][vertexSize];
+		adjacentVertices = new int[vertexSize][];
+		adjacentWeights = new long[vertexSize][];
+		degree = new int[vertexSize];
 		vertexCount = 0;
 		edgeCount = 0;
-		initAdjMatrix();
-	}
-
-	void initAdjMatrix() {
-		for (int row = 0; row < vertexList.length; row++) {
-			for (int col = 0; col < vertexList.length; col++) {
-				adjacencyMatrix[row][col] = INFINITY;
-			}
-		}
 	}
 
 	public static void main(String[] args) {
 		char isContinue = 'N';
 		do {
 			System.out.println(
-					"\nEnter the following choice - M(Minimum Spanning Tree with Weighted Graph)	D(Dijkstra a.k.a Shortest Path Problem)");
+					"\nEnter the following choice - M(Minimum Spanning Tree with Weighted Graph)	D(Dijkstra a.k.a Shortest Path Problem)	P(Point to Point Shortest Path)	B(Bellman-Ford with Negative Weights)	F(Floyd-Warshall a.k.a All Pairs Shortest Path)");
 			char choice = getChar();
 			switch (choice) {
 			case 'M':
 				WeightedGraph graph = new WeightedGraph(6);
 				graph.initializeGraphForMSTW();
-				graph.performMSTW();
+				graph.printMinSpanTree(graph.performMSTW());
 				break;
 			case 'D':
 				graph = new WeightedGraph(5);
 				graph.initializeGraphForDijkstra();
-				graph.performDijkstra();
+				graph.printPath(graph.performDijkstra());
+				break;
+			case 'P':
+				graph = new WeightedGraph(6);
+				graph.initializeGraphForAStar();
+				graph.printRoute("Bidirectional Dijkstra", graph.performBidirectionalDijkstra(0, 5));
+				graph.printRoute("A*", graph.performAStar(0, 5));
+				break;
+			case 'B':
+				graph = new WeightedGraph(5);
+				graph.initializeGraphForBellmanFord();
+				graph.printBellmanFord(graph.performBellmanFord());
+				graph.addDirectedWeightedEdge(3, 2, 0); // DC 0 closes the cycle BDC of weight -1
+				graph.printBellmanFord(graph.performBellmanFord());
+				break;
+			case 'F':
+				graph = new WeightedGraph(5);
+				graph.initializeGraphForDijkstra();
+				graph.printAllPairs(graph.performFloydWarshall());
 				break;
 			default:
 				System.out.println("Invalid Entry !!");
@@ -77,135 +104,207 @@ public class WeightedGraph {
 
 	/**
 	 * 
-	 * The performDijkstra() method carries out the shortest-path algorithm. It
-	 * uses the DistanceAndParent class and the Vertex class. The starting
-	 * vertex is always at index 0 of the vertexList[] array. The first task in
-	 * performDijkstra() is to put this vertex into the processedVertices.
-	 * Second, performDijkstra() copies the distances from the appropriate row
-	 * of the adjacency matrix to shortestPathArray[]. This is always row 0,
-	 * because for simplicity we assume 0 is the index of the starting vertex.
-	 * Initially, the parent field of all the shortestPathArray[] entries is A,
-	 * the starting vertex.
+	 * The performDijkstra() method carries out the shortest-path algorithm.
+	 * The starting vertex is always at index 0 of the vertexList[] array.
+	 * 
+	 * The key data structure in the shortest-path (Dijkstra) algorithm is an
+	 * array that keeps track of the minimum distances from the starting vertex
+	 * to the other vertices (destination vertices). During the execution of
+	 * the algorithm, these distances are changed, until at the end they hold
+	 * the actual shortest distances from the start. The loop of the algorithm
+	 * does three things:
 	 * 
-	 * We now enter the main while loop of the algorithm. This loop terminates
-	 * after all the vertices have been placed in the processedVertices. There
-	 * are basically three actions in this loop:
+	 * 1. Choose the vertex with the minimum distance that is not processed
+	 * yet.
 	 * 
-	 * 1. Choose the shortestPathArray[] entry with the minimum distance.
+	 * 2. Put it in the processed (settled) set. This becomes the current
+	 * vertex.
 	 * 
-	 * 2. Put the corresponding vertex (the column head for this entry) in the
-	 * processedVertices. This becomes the current vertex, currentVert.
+	 * 3. Update the distances of all the vertices adjacent to the current
+	 * vertex to reflect the paths through it.
 	 * 
-	 * 3. Update all the shortestPathArray[] entries to reflect distances from
-	 * currentVert.
+	 * Choosing the minimum by scanning every vertex makes each round O(N). The
+	 * search therefore keeps the unprocessed vertices in a heap: step 1
+	 * becomes a removal from the heap and step 3 a decrease-key, and the
+	 * whole search over the adjacency lists of toCSRGraph() is O((N + E) log
+	 * N).
+	 * See WeightedCSRGraph.performDijkstra().
 	 * 
+	 * @return the distance and parent of every vertex
 	 */
-	void performDijkstra() {
-		// The key data structure in the shortest-path (Dijkstra) algorithm is
-		// an "array" that keeps track of the minimum distances from the
-		// starting vertex to the other vertices (destination vertices). During
-		// the execution of the algorithm, these distances are changed, until at
-		// the end they hold the actual shortest distances from the start.
-		DistanceAndParent[] shortestPathArray = new DistanceAndParent[vertexCount];
-
-		int currentVertex = 0;
-		List<Integer> processedVertices = new ArrayList<Integer>();
-		processedVertices.add(new Integer(currentVertex));
-
-		for (int destIndex = 0; destIndex < vertexCount; destIndex++) {
-			int weight = adjacencyMatrix[currentVertex][destIndex];
-			shortestPathArray[destIndex] = new DistanceAndParent(weight, currentVertex);
-		}
-
-		while (processedVertices.size() < vertexCount) {
-			int minVertex = getMinimumPathVertex(shortestPathArray, processedVertices);
-			int minDistance = shortestPathArray[minVertex].getDistance();
-			System.out.println(
-					"\nMinium Vertex -> " + vertexList[minVertex].label + " Minimum Distance -> " + minDistance);
-			if (minDistance == INFINITY) {
-				break;
-			} else {
-				processedVertices.add(new Integer(minVertex));
-				currentVertex = minVertex;
-				adjustShortestPathArray(shortestPathArray, processedVertices, currentVertex);
-				printPath(shortestPathArray);
-			}
-		}
+	ShortestPathTree performDijkstra() {
+		return shortestPaths(0);
 	}
 
-	void printPath(DistanceAndParent[] shortestPathArray) {
-		for (int index = 0; index < shortestPathArray.length; index++) {
-			DistanceAndParent dp = shortestPathArray[index];
-			System.out.print(vertexList[index].label + " = " + dp.getDistance() + "("
-					+ vertexList[dp.getParentIndex()].label + ")	");
+	/**
+	 * Shortest paths from any vertex by Dijkstra's algorithm, taken from the
+	 * cache if it is enabled and has the tree of the source.
+	 * 
+	 * @param source
+	 * @return
+	 */
+	ShortestPathTree shortestPaths(int source) {
+		if (shortestPathCache == null) {
+			return toCSRGraph().performDijkstra(source);
 		}
+		return shortestPathCache.get(source, start -> toCSRGraph().performDijkstra(start));
 	}
 
 	/**
-	 * The adjustShortestPathArray() method is used to update the
-	 * shortestPathArray[] entries to reflect new information obtained from the
-	 * vertex just inserted in the tree. When this routine is called,
-	 * currentVert has just been placed in the tree, and startToCurrentDistance
-	 * is the current weight/distance in shortestPathArray[] for this vertex.
-	 * The adjustShortestPathArray() method now examines each vertex entry in
-	 * shortestPathArray[], using the loop counter column to point to each
-	 * vertex in turn. For each shortestPathArray[] entry, provided the vertex
-	 * is not in the tree, it does three things:
+	 * Keeps the trees of shortestPaths() within the memory budget, and drops
+	 * only the trees an edge change can affect. See ShortestPathCache.
 	 * 
-	 * 1. It adds the distance to the current vertex (already calculated and now
-	 * in startToCurrentDistance) to the edge distance from currentVert to the
-	 * column vertex. We call the result startToFringeDistance.
-	 * 
-	 * 2. It compares startToFringeDistance with the current entry in
-	 * shortestPathArray[].
+	 * @param memoryBudget
+	 */
+	void enableShortestPathCache(long memoryBudget) {
+		shortestPathCache = new ShortestPathCache(memoryBudget);
+	}
+
+	/**
+	 * Shortest paths from index 0 like performDijkstra(), but weights may be
+	 * negative. Instead of the distances, a negative cycle that can be
+	 * reached from the start is returned if there is one. See BellmanFord.
 	 * 
-	 * 3. If startToFringeDistance is less, it replaces the entry in
-	 * shortestPathArray[].
+	 * @return
+	 */
+	BellmanFord.Result performBellmanFord() {
+		return new BellmanFord(toCSRGraph()).search(0);
+	}
+
+	/**
+	 * Shortest distances between all pairs of vertices, in one table, with a
+	 * next hop table to find the paths. See FloydWarshall.blocked().
 	 * 
-	 * This is the heart of Dijkstras algorithm. It keeps shortestPathArray[]
-	 * updated with the shortest distances to all the vertices that are
-	 * currently known.
+	 * @return
+	 */
+	FloydWarshall performFloydWarshall() {
+		return FloydWarshall.blocked(toCSRGraph());
+	}
+
+	/**
+	 * Copies the adjacency lists back to back into a WeightedCSRGraph, every
+	 * arc of a vertex in the order it was added. O(N + E).
 	 * 
-	 * @param shortestPathArray
+	 * @return
 	 */
-	void adjustShortestPathArray(DistanceAndParent[] shortestPathArray, List<Integer> processedVertices,
-			int currentVertex) {
-		DistanceAndParent dp = shortestPathArray[currentVertex];
-		int startToCurrentDistance = dp.getDistance();
-		for (int destIndex = 0; destIndex < vertexCount; destIndex++) {
-			int currentToFringeDistance = adjacencyMatrix[currentVertex][destIndex];
-			if (currentToFringeDistance < INFINITY && !processedVertices.contains(new Integer(destIndex))) {
-				int startToFringeDistance = startToCurrentDistance + currentToFringeDistance;
-				DistanceAndParent destDP = shortestPathArray[destIndex];
-				if (startToFringeDistance < destDP.getDistance()) {
-					destDP.setDistance(startToFringeDistance);
-					destDP.setParentIndex(currentVertex);
-				}
+	public WeightedCSRGraph toCSRGraph() {
+		int[] offsets = new int[vertexCount + 1];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			offsets[vertex + 1] = offsets[vertex] + degree[vertex];
+		}
+		int[] targets = new int[offsets[vertexCount]];
+		long[] weights = new long[offsets[vertexCount]];
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			if (degree[vertex] > 0) {
+				System.arraycopy(adjacentVertices[vertex], 0, targets, offsets[vertex], degree[vertex]);
+				System.arraycopy(adjacentWeights[vertex], 0, weights, offsets[vertex], degree[vertex]);
 			}
 		}
+		return new WeightedCSRGraph(vertexCount, offsets, targets, weights);
 	}
 
 	/**
-	 * This method finds the shortestPathArray[] entry with the minimum
-	 * distance. it steps across the shortestPathArray[] entries and returns
-	 * with the column number (the array index) of the entry with the minimum
-	 * distance.
+	 * Searches from the source and from the target at the same time and
+	 * stops once the two searches prove the shortest path. See
+	 * PointToPoint.bidirectionalDijkstra().
 	 * 
-	 * @param shortestPathArray
-	 * @param processedVertices
+	 * @param source
+	 * @param target
 	 * @return
 	 */
-	int getMinimumPathVertex(DistanceAndParent[] shortestPathArray, List<Integer> processedVertices) {
-		int minimumPath = INFINITY;
-		int minVertex = 0;
-		for (int arrayIndex = 0; arrayIndex < shortestPathArray.length; arrayIndex++) {
-			DistanceAndParent dp = shortestPathArray[arrayIndex];
-			if (dp.getDistance() < minimumPath && !processedVertices.contains(new Integer(arrayIndex))) {
-				minimumPath = dp.getDistance();
-				minVertex = arrayIndex;
+	PointToPoint.Path performBidirectionalDijkstra(int source, int target) {
+		return new PointToPoint(toCSRGraph()).bidirectionalDijkstra(source, target);
+	}
+
+	/**
+	 * A* search guided by the straight line distance between the coordinates
+	 * of the vertices. See PointToPoint.aStar().
+	 * 
+	 * @param source
+	 * @param target
+	 * @return
+	 */
+	PointToPoint.Path performAStar(int source, int target) {
+		return new PointToPoint(toCSRGraph()).aStar(source, target, straightLineHeuristic());
+	}
+
+	/**
+	 * Estimates the distance left as the straight line distance between the
+	 * coordinates of the two vertices, rounded down. No route can be shorter
+	 * than the straight line, so the estimate is admissible as long as no
+	 * edge weighs less than the straight line distance between its end
+	 * points.
+	 * 
+	 * @return
+	 */
+	Heuristic straightLineHeuristic() {
+		final double[] x = new double[vertexCount];
+		final double[] y = new double[vertexCount];
+		for (int index = 0; index < vertexCount; index++) {
+			x[index] = vertexList[index].x;
+			y[index] = vertexList[index].y;
+		}
+		return new Heuristic() {
+			public long estimate(int vertex, int target) {
+				return (long) Math.floor(Math.hypot(x[vertex] - x[target], y[vertex] - y[target]));
+			}
+		};
+	}
+
+	void printRoute(String name, PointToPoint.Path path) {
+		System.out.print(name + " -> ");
+		if (!path.isFound()) {
+			System.out.println("no path");
+			return;
+		}
+		for (int vertex : path.getVertices()) {
+			System.out.print(vertexList[vertex].label);
+		}
+		System.out.println(" distance " + path.getDistance() + ", " + path.getSettledCount() + " vertices settled");
+	}
+
+	void printPath(ShortestPathTree tree) {
+		for (int index = 0; index < vertexCount; index++) {
+			if (tree.isReachable(index)) {
+				int parentIndex = index == tree.getSource() ? index : tree.getParent()[index];
+				System.out.print(vertexList[index].label + " = " + tree.getDistance(index) + "("
+						+ vertexList[parentIndex].label + ")	");
+			} else {
+				System.out.print(vertexList[index].label + " = inf	");
+			}
+		}
+		System.out.println();
+	}
+
+	void printBellmanFord(BellmanFord.Result result) {
+		if (result.hasNegativeCycle()) {
+			System.out.print("Negative cycle -> ");
+			for (int vertex : result.getNegativeCycle()) {
+				System.out.print(vertexList[vertex].label);
+			}
+			System.out.println();
+		} else {
+			printPath(result.getTree());
+		}
+	}
+
+	void printAllPairs(FloydWarshall table) {
+		for (int from = 0; from < vertexCount; from++) {
+			for (int to = 0; to < vertexCount; to++) {
+				int[] path = table.getPath(from, to);
+				System.out.print(vertexList[from].label + "" + vertexList[to].label + " = ");
+				if (path == null) {
+					System.out.print("inf	");
+					continue;
+				}
+				System.out.print(table.getDistance(from, to) + "(");
+				for (int vertex : path) {
+					System.out.print(vertexList[vertex].label);
+				}
+				System.out.print(")	");
 			}
+			System.out.println();
 		}
-		return minVertex;
 	}
 
 	/**
@@ -218,9 +317,9 @@ public class WeightedGraph {
 	 * 
 	 * 2. The edges adjacent to this vertex are placed in the priority queue (if
 	 * appropriate). i.e. the edges adjacent to this vertex are considered for
-	 * insertion in the priority queue. The edges are examined by scanning
-	 * across the row whose number is currentVert in the adjacency matrix. An
-	 * edge is placed in the queue unless one of these conditions is true:
+	 * insertion in the priority queue. The edges are examined by walking the
+	 * adjacency list of currentVert. An edge is placed in the queue unless one
+	 * of these conditions is true:
 	 * 
 	 * ....A)The source and destination vertices are the same.
 	 * 
@@ -231,35 +330,17 @@ public class WeightedGraph {
 	 * 3. The edge with the minimum weight is removed from the priority queue.
 	 * The destination vertex of this edge becomes the current vertex.
 	 * 
+	 * A queue of edges keeps edges whose destination has joined the tree
+	 * since they were inserted; such a stale edge must be skipped when it is
+	 * removed, or it closes a cycle. The tree is therefore grown with a heap
+	 * of vertices rather than edges, keyed by the lightest edge to the tree,
+	 * where lowering a key replaces inserting another edge. Nothing is
+	 * printed while the tree grows. See MinimumSpanningTree.prim().
+	 * 
+	 * @return the edges of the tree
 	 */
-	void performMSTW() {
-		List<Edge> minSpanTreeList = new ArrayList<Edge>();
-		PriorityQueue pQueue = new PriorityQueue(edgeCount, this);
-		int currentVertex = 0;
-		List<Integer> processedVertices = new ArrayList<Integer>();
-		processedVertices.add(new Integer(currentVertex));
-		printVertices(processedVertices);
-		while (processedVertices.size() < vertexCount) {
-			for (int endVertex = 0; endVertex < vertexCount; endVertex++) {
-				if (currentVertex == endVertex) {
-					continue;
-				} else if (processedVertices.contains(new Integer(endVertex))) {
-					continue;
-				} else if (adjacencyMatrix[currentVertex][endVertex] == INFINITY) {
-					continue;
-				} else {
-					pQueue.insert(new Edge(currentVertex, endVertex, adjacencyMatrix[currentVertex][endVertex]));
-				}
-			}
-			Edge edge = pQueue.remove();
-			System.out.print("\nEdge " + printEdge(edge) + " removed from Queue..");
-			minSpanTreeList.add(edge);
-			printMinSpanTree(minSpanTreeList);
-			currentVertex = edge.getEndVertex();
-			processedVertices.add(new Integer(currentVertex));
-			printVertices(processedVertices);
-		}
-		System.out.println("\nAll Vertices Processed !!");
+	MinimumSpanningTree performMSTW() {
+		return MinimumSpanningTree.prim(toCSRGraph());
 	}
 
 	static char getChar() {
@@ -283,49 +364,125 @@ public class WeightedGraph {
 	void addVertex(char label) {
 		Vertex vertex = new Vertex(label);
 		vertexList[vertexCount++] = vertex;
+		if (shortestPathCache != null) {
+			shortestPathCache.clear();
+		}
+	}
+
+	/**
+	 * Adds a vertex with a position, for searches guided by the straight line
+	 * distance.
+	 * 
+	 * @param label
+	 * @param x
+	 * @param y
+	 */
+	void addVertex(char label, double x, double y) {
+		Vertex vertex = new Vertex(label, x, y);
+		vertexList[vertexCount++] = vertex;
+		if (shortestPathCache != null) {
+			shortestPathCache.clear();
+		}
 	}
 
-	void addWeightedEdge(int vertexIndexA, int vertexIndexB, int weight) {
-		if (vertexIndexA < vertexList.length && vertexIndexB < vertexList.length) {
-			adjacencyMatrix[vertexIndexA][vertexIndexB] = weight;
-			adjacencyMatrix[vertexIndexB][vertexIndexA] = weight;
-			edgeCount += 2;
+	/**
+	 * Adds an undirected edge, or changes its weight if it exists already.
+	 * 
+	 * @param vertexIndexA
+	 * @param vertexIndexB
+	 * @param weight
+	 */
+	void addWeightedEdge(int vertexIndexA, int vertexIndexB, long weight) {
+		if (vertexIndexA < vertexCount && vertexIndexB < vertexCount) {
+			setArc(vertexIndexA, vertexIndexB, weight);
+			if (vertexIndexA != vertexIndexB) {
+				setArc(vertexIndexB, vertexIndexA, weight);
+			}
 		} else {
-			System.out.println("Adjacency Matrix index exceeds max size!!");
+			System.out.println("Vertex index exceeds vertex count!!");
 		}
 	}
 
-	void addDirectedWeightedEdge(int vertexIndexA, int vertexIndexB, int weight) {
-		if (vertexIndexA < vertexList.length && vertexIndexB < vertexList.length) {
-			adjacencyMatrix[vertexIndexA][vertexIndexB] = weight;
-			edgeCount += 1;
+	/**
+	 * Adds an edge from A to B only, or changes its weight if it exists
+	 * already.
+	 * 
+	 * @param vertexIndexA
+	 * @param vertexIndexB
+	 * @param weight
+	 */
+	void addDirectedWeightedEdge(int vertexIndexA, int vertexIndexB, long weight) {
+		if (vertexIndexA < vertexCount && vertexIndexB < vertexCount) {
+			setArc(vertexIndexA, vertexIndexB, weight);
 		} else {
-			System.out.println("Adjacency Matrix index exceeds max size!!");
+			System.out.println("Vertex index exceeds vertex count!!");
 		}
 	}
 
-	void printMinSpanTree(List<Edge> minSpanTreeList) {
-		System.out.print("Weighted Minimum Spanning Tree list -> ");
-		for (Edge edge : minSpanTreeList) {
-			char beginLabel = vertexList[edge.getBeginVertex()].label;
-			char endLabel = vertexList[edge.getEndVertex()].label;
-			int weight = adjacencyMatrix[edge.getBeginVertex()][edge.getEndVertex()];
-			System.out.print(beginLabel + "" + endLabel + "" + weight + ",");
+	/**
+	 * Looks for the arc in the list of vertexIndexA, O(degree), and updates
+	 * its weight, or appends it if absent. A full list doubles in size. The
+	 * cached trees the change affects are dropped.
+	 */
+	void setArc(int vertexIndexA, int vertexIndexB, long weight) {
+		int index = indexOf(vertexIndexA, vertexIndexB);
+		if (shortestPathCache != null) {
+			long oldWeight = index == -1 ? ShortestPathTree.UNREACHABLE : adjacentWeights[vertexIndexA][index];
+			shortestPathCache.arcChanged(vertexIndexA, vertexIndexB, oldWeight, weight);
+		}
+		if (index == -1) {
+			if (adjacentVertices[vertexIndexA] == null) {
+				adjacentVertices[vertexIndexA] = new int[4];
+				adjacentWeights[vertexIndexA] = new long[4];
+			} else if (degree[vertexIndexA] == adjacentVertices[vertexIndexA].length) {
+				adjacentVertices[vertexIndexA] = Arrays.copyOf(adjacentVertices[vertexIndexA], 2 * degree[vertexIndexA]);
+				adjacentWeights[vertexIndexA] = Arrays.copyOf(adjacentWeights[vertexIndexA], 2 * degree[vertexIndexA]);
+			}
+			index = degree[vertexIndexA]++;
+			adjacentVertices[vertexIndexA][index] = vertexIndexB;
+			edgeCount++;
+		}
+		adjacentWeights[vertexIndexA][index] = weight;
+	}
+
+	int indexOf(int vertexIndexA, int vertexIndexB) {
+		for (int index = 0; index < degree[vertexIndexA]; index++) {
+			if (adjacentVertices[vertexIndexA][index] == vertexIndexB) {
+				return index;
+			}
 		}
+		return -1;
 	}
 
-	String printEdge(Edge edge) {
-		char beginLabel = vertexList[edge.getBeginVertex()].label;
-		char endLabel = vertexList[edge.getEndVertex()].label;
-		int weight = adjacencyMatrix[edge.getBeginVertex()][edge.getEndVertex()];
-		return (beginLabel + "" + endLabel + "" + weight);
+	/**
+	 * @return true if there is an edge from A to B
+	 */
+	boolean hasEdge(int vertexIndexA, int vertexIndexB) {
+		return indexOf(vertexIndexA, vertexIndexB) != -1;
 	}
 
-	void printVertices(List<Integer> processedVertices) {
-		System.out.print("\nProcessed Vertices -> ");
-		for (int index : processedVertices) {
-			System.out.print(vertexList[index].label + ",");
+	/**
+	 * @return the weight of the edge from A to B
+	 * @throws IllegalArgumentException
+	 *             if there is no such edge
+	 */
+	long getWeight(int vertexIndexA, int vertexIndexB) {
+		int index = indexOf(vertexIndexA, vertexIndexB);
+		if (index == -1) {
+			throw new IllegalArgumentException("No edge from " + vertexList[vertexIndexA].label + " to "
+					+ vertexList[vertexIndexB].label);
 		}
+		return adjacentWeights[vertexIndexA][index];
+	}
+
+	void printMinSpanTree(MinimumSpanningTree tree) {
+		System.out.print("Weighted Minimum Spanning Tree list -> ");
+		for (int edge = 0; edge < tree.getEdgeCount(); edge++) {
+			char beginLabel = vertexList[tree.getEdgeFrom()[edge]].label;
+			char endLabel = vertexList[tree.getEdgeTo()[edge]].label;
+			System.out.print(beginLabel + "" + endLabel + "" + tree.getEdgeWeight()[edge] + ",");
+		}
+		System.out.println("\nTotal weight -> " + tree.getTotalWeight());
 	}
 
 	void initializeGraphForMSTW() {
@@ -348,6 +505,22 @@ public class WeightedGraph {
 		addWeightedEdge(4, 5, 7); // EF 7
 	}
 
+	void initializeGraphForAStar() {
+		addVertex('A', 0, 0); // 0 (start)
+		addVertex('B', 3, 4); // 1
+		addVertex('C', 6, 0); // 2
+		addVertex('D', -4, 3); // 3
+		addVertex('E', 9, 4); // 4
+		addVertex('F', 12, 0); // 5 (target)
+		addWeightedEdge(0, 1, 5); // AB 5
+		addWeightedEdge(0, 2, 7); // AC 7
+		addWeightedEdge(0, 3, 5); // AD 5
+		addWeightedEdge(1, 4, 6); // BE 6
+		addWeightedEdge(2, 5, 6); // CF 6
+		addWeightedEdge(4, 5, 5); // EF 5
+		addWeightedEdge(1, 2, 5); // BC 5
+	}
+
 	void initializeGraphForDijkstra() {
 		addVertex('A'); // 0 (start)
 		addVertex('B'); // 1
@@ -364,133 +537,36 @@ public class WeightedGraph {
 		addDirectedWeightedEdge(4, 1, 50); // EB 50
 	}
 
+	void initializeGraphForBellmanFord() {
+		addVertex('A'); // 0 (start)
+		addVertex('B'); // 1
+		addVertex('C'); // 2
+		addVertex('D'); // 3
+		addVertex('E'); // 4
+		addDirectedWeightedEdge(0, 1, 4); // AB 4
+		addDirectedWeightedEdge(0, 2, 5); // AC 5
+		addDirectedWeightedEdge(1, 3, 3); // BD 3
+		addDirectedWeightedEdge(2, 1, -4); // CB -4
+		addDirectedWeightedEdge(3, 2, 2); // DC 2
+		addDirectedWeightedEdge(3, 4, 1); // DE 1
+	}
+
 }
 
 class Vertex {
 	char label;
 	boolean isFoundInMinSpanningTree;
+	double x;
+	double y;
 
 	Vertex(char label) {
 		this.label = label;
 		this.isFoundInMinSpanningTree = false;
 	}
-}
-
-class Edge {
-	int beginVertex;
-	int endVertex;
-	int weight;
-
-	Edge(int beginVertex, int endVertex, int weight) {
-		this.beginVertex = beginVertex;
-		this.endVertex = endVertex;
-		this.weight = weight;
-	}
-
-	public int getBeginVertex() {
-		return beginVertex;
-	}
-
-	public void setBeginVertex(int beginVertex) {
-		this.beginVertex = beginVertex;
-	}
-
-	public int getEndVertex() {
-		return endVertex;
-	}
-
-	public void setEndVertex(int endVertex) {
-		this.endVertex = endVertex;
-	}
-
-	public int getWeight() {
-		return weight;
-	}
-
-	public void setWeight(int weight) {
-		this.weight = weight;
-	}
-}
-
-class PriorityQueue {
-	WeightedGraph weightedGraph = null;
-	Edge[] edgeArray = null;
-	int queueSize;
-	int noItems;
-
-	PriorityQueue(int size, WeightedGraph wGraph) {
-		weightedGraph = wGraph;
-		edgeArray = new Edge[size];
-		queueSize = size;
-		noItems = 0;
-	}
-
-	protected void insert(Edge edge) {
-		if (noItems >= queueSize) {
-			System.out.println("Q Full. Cant insert");
-		}
-		if (noItems == 0) {
-			edgeArray[noItems++] = edge;
-		} else {
-			for (int index = noItems - 1; index >= 0; index--) {
-				if (edge.getWeight() > edgeArray[index].getWeight()) {
-					edgeArray[index + 1] = edgeArray[index];
-					edgeArray[index] = edge;
-				} else {
-					edgeArray[index + 1] = edge;
-					break;
-				}
-			}
-			noItems++;
-		}
-		System.out.print("\nEdge " + weightedGraph.printEdge(edge) + " inserted into Priority Queue -> ");
-		for (int i = noItems - 1; i >= 0; i--) {
-			System.out.print(weightedGraph.printEdge(edgeArray[i]) + ",");
-		}
-
-	}
-
-	protected Edge remove() {// Remove at Minimum item
-		if (noItems <= 0) {
-			System.out.println("Q Empty. Cant remove");
-			return null;
-		} else {
-			return edgeArray[--noItems];
-		}
-	}
-}
-
-/**
- * This class holds the minimum distance from the starting vertex to each
- * destination vertex, and also the path taken. However, the entire path is not
- * explicitly stored. Only the parent of the destination vertex is stored. The
- * parent is the vertex reached just before the destination.
- * 
- * @author vshanmughada
- *
- */
-class DistanceAndParent {
-	int distance;
-	int parentIndex;
-
-	public DistanceAndParent(int distance, int parentIndex) {
-		this.distance = distance;
-		this.parentIndex = parentIndex;
-	}
-
-	public int getDistance() {
-		return distance;
-	}
-
-	public int getParentIndex() {
-		return parentIndex;
-	}
-
-	public void setDistance(int distance) {
-		this.distance = distance;
-	}
 
-	public void setParentIndex(int parentIndex) {
-		this.parentIndex = parentIndex;
+	Vertex(char label, double x, double y) {
+		this(label);
+		this.x = x;
+		this.y = y;
 	}
 }
\ No newline at end of file